@@ -0,0 +1,170 @@
+#!/usr/bin/env bash
+# Startup time, first request latency and resident memory of the JVM, JVM + AOT, AppCDS, CRaC and native builds.
+#
+#   ./mvnw -Pnative package -DskipTests            jar with the AOT classes (used by every mode but native)
+#   ./mvnw -Pnative native:compile -DskipTests     target/spring-boot-testing, needs GraalVM
+#   scripts/measure-startup.sh [runs] [jvm] [aot] [cds] [crac] [native]
+#
+# Every run starts the application on a free port, waits until /actuator/health is UP and reads
+# the startup time Spring Boot logs, the wall clock time until the first UP and VmRSS at that moment.
+# Then it times the first GET of a page of employees and, after 100 more, a warm one.
+#
+# cds runs the unpacked jar with the AppCDS archive target/cds/app.jsa. The archive is recorded on first use
+# by a training run that exits after the warm-up (employee.warmup.then=exit, see CheckpointConfig).
+# crac restores the checkpoint in target/crac, taken on first use right after the warm-up
+# (employee.warmup.then=checkpoint). It needs a CRaC JDK on Linux, and the restored application listens
+# on the port it was checkpointed with. Delete target/cds and target/crac* after rebuilding the jar.
+#
+# The database is the one from application.properties, or SPRING_DATASOURCE_URL/USERNAME/PASSWORD.
+# EXTRA_CLASSPATH adds jars to the JVM builds, e.g. the H2 driver for a run without MySQL:
+#   EXTRA_CLASSPATH=~/.m2/repository/com/h2database/h2/2.1.214/h2-2.1.214.jar \
+#   SPRING_DATASOURCE_URL='jdbc:h2:mem:ems;MODE=MySQL;INIT=CREATE SCHEMA IF NOT EXISTS ems\;SET SCHEMA ems' \
+#   SPRING_DATASOURCE_USERNAME=sa SPRING_DATASOURCE_PASSWORD= scripts/measure-startup.sh 5 jvm aot cds
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+shift || true
+MODES=("$@")
+[ ${#MODES[@]} -eq 0 ] && MODES=(jvm aot cds crac native)
+
+JAR=$(ls target/spring-boot-testing-*.jar 2>/dev/null | grep -v original | head -n 1 || true)
+NATIVE=target/spring-boot-testing
+CDS_DIR=$PWD/target/cds
+CRAC_DIR=$PWD/target/crac
+MAIN_CLASS=com.dagli.springboottesting.SpringBootTestingApplication
+WARM_REQUESTS=100
+LOG=$(mktemp)
+trap 'rm -f "$LOG"' EXIT
+
+# runs in the background subshell, exec keeps $! the pid of the application itself
+launch() {
+    local mode=$1 port=$2
+    shift 2
+    local args=(--server.port="$port" --management.endpoints.web.exposure.include=health "$@")
+    case "$mode" in
+        native)
+            exec "$NATIVE" "${args[@]}" ;;
+        crac)
+            # everything else, port included, comes from the checkpoint
+            exec java -XX:CRaCRestoreFrom="$CRAC_DIR" ;;
+        cds|cds-training)
+            # the archive only covers classes loaded from jars on the class path: not from the jars nested in
+            # the boot jar and not from directories, so the application classes are packed into a jar of their own
+            local cds=-XX:SharedArchiveFile="$CDS_DIR/app.jsa"
+            [ "$mode" = cds-training ] && cds=-XX:ArchiveClassesAtExit="$CDS_DIR/app.jsa"
+            exec java "$cds" -cp "$CDS_DIR/application.jar:$CDS_DIR/app/BOOT-INF/lib/*${EXTRA_CLASSPATH:+:$EXTRA_CLASSPATH}" \
+                "$MAIN_CLASS" "${args[@]}" ;;
+    esac
+    local java=(java)
+    [ "$mode" = aot ] && java+=(-Dspring.aot.enabled=true)
+    [ "$mode" = crac-checkpoint ] && java+=(-XX:CRaCCheckpointTo="$CRAC_DIR")
+    if [ -n "${EXTRA_CLASSPATH:-}" ]; then
+        exec "${java[@]}" -Dloader.path="$EXTRA_CLASSPATH" -cp "$JAR" org.springframework.boot.loader.PropertiesLauncher "${args[@]}"
+    fi
+    exec "${java[@]}" -jar "$JAR" "${args[@]}"
+}
+
+free_port() {
+    python3 -c 'import socket; s = socket.socket(); s.bind(("", 0)); print(s.getsockname()[1])'
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+request_ms() {
+    curl -fs -o /dev/null -w '%{time_total}' "http://localhost:$1/api/v1/employees/page?size=50" | awk '{ printf "%.1f", $1 * 1000 }'
+}
+
+prepare_cds() {
+    [ -f "$CDS_DIR/app.jsa" ] && return 0
+    rm -rf "$CDS_DIR"
+    mkdir -p "$CDS_DIR/app"
+    (cd "$CDS_DIR/app" && jar -xf "$OLDPWD/$JAR")
+    jar -cf "$CDS_DIR/application.jar" -C "$CDS_DIR/app/BOOT-INF/classes" .
+    echo "recording $CDS_DIR/app.jsa" >&2
+    (launch cds-training "$(free_port)" --employee.warmup.enabled=true --employee.warmup.then=exit) > "$LOG" 2>&1 || true
+    if [ ! -f "$CDS_DIR/app.jsa" ]; then
+        echo "cds training run failed:" >&2
+        tail -n 20 "$LOG" >&2
+        return 1
+    fi
+}
+
+prepare_crac() {
+    [ -f "$CRAC_DIR.port" ] && return 0
+    if ! java -XX:CRaCCheckpointTo="$(mktemp -d)" -version > /dev/null 2>&1; then
+        echo "crac    skipped, needs a CRaC JDK" >&2
+        return 1
+    fi
+    local port pid
+    port=$(free_port)
+    rm -rf "$CRAC_DIR"
+    echo "taking the checkpoint in $CRAC_DIR" >&2
+    launch crac-checkpoint "$port" --employee.warmup.enabled=true --employee.warmup.then=checkpoint \
+        --employee.checkpoint.enabled=true > "$LOG" 2>&1 &
+    pid=$!
+    # the JVM exits once the checkpoint is written
+    wait "$pid" || true
+    if ! grep -q "Ready for checkpoint" "$LOG" || [ ! -d "$CRAC_DIR" ]; then
+        echo "crac checkpoint failed:" >&2
+        tail -n 20 "$LOG" >&2
+        return 1
+    fi
+    # CRIU restores the process with its original pid
+    echo "$port" > "$CRAC_DIR.port"
+    echo "$pid" > "$CRAC_DIR.pid"
+}
+
+measure() {
+    local mode=$1 port pid start ready
+    port=$(free_port)
+    [ "$mode" = crac ] && port=$(cat "$CRAC_DIR.port")
+    start=$(now_ms)
+    launch "$mode" "$port" > "$LOG" 2>&1 &
+    pid=$!
+    until curl -fs "http://localhost:$port/actuator/health" 2>/dev/null | grep -q '"UP"'; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$mode did not start:" >&2
+            tail -n 20 "$LOG" >&2
+            return 1
+        fi
+        sleep 0.01
+    done
+    ready=$(( $(now_ms) - start ))
+    [ "$mode" = crac ] && pid=$(cat "$CRAC_DIR.pid")
+    local rss started first warm
+    rss=$(awk '/VmRSS/ { print int($2 / 1024) }' "/proc/$pid/status")
+    first=$(request_ms "$port")
+    for _ in $(seq "$WARM_REQUESTS"); do
+        request_ms "$port" > /dev/null
+    done
+    warm=$(request_ms "$port")
+    # a restored process logs nothing about its start
+    started=$(sed -n 's/.*Started SpringBootTestingApplication in \([0-9.]*\) seconds.*/\1/p' "$LOG" | head -n 1)
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    while kill -0 "$pid" 2>/dev/null; do
+        sleep 0.01
+    done
+    printf '%-7s %12s %12s %14s %13s %8s\n' "$mode" "${started:-?}s" "${ready}ms" "${first}ms" "${warm}ms" "${rss}MB"
+}
+
+printf '%-7s %12s %12s %14s %13s %8s\n' build "started in" "health UP" "first request" "warm request" RSS
+for mode in "${MODES[@]}"; do
+    if [ "$mode" = native ] && [ ! -x "$NATIVE" ]; then
+        echo "native  skipped, build it with ./mvnw -Pnative native:compile" >&2
+        continue
+    fi
+    if [ "$mode" != native ] && [ -z "$JAR" ]; then
+        echo "$mode skipped, build the jar with ./mvnw -Pnative package" >&2
+        continue
+    fi
+    [ "$mode" = cds ] && { prepare_cds || continue; }
+    [ "$mode" = crac ] && { prepare_crac || continue; }
+    for _ in $(seq "$RUNS"); do
+        measure "$mode"
+    done
+done
@@ -0,0 +1,80 @@
+package com.dagli.springboottesting.benchmark;
+
+import com.dagli.springboottesting.SpringBootTestingApplication;
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.repository.EmployeeRepository;
+import com.dagli.springboottesting.service.EmployeeService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// boots the application for the benchmarks, against an in-memory H2 database in MySQL mode unless stated otherwise.
+// The schema comes from the Flyway migrations in both cases.
+final class BenchmarkContext {
+
+    static final int SEED_BATCH_SIZE = 1000;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        return start(WebApplicationType.NONE, extraProperties);
+    }
+
+    // properties are passed as command line arguments so they win over application.properties
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... extraProperties) {
+        List<String> arguments = new ArrayList<>(List.of(
+                // the native queries use the ems schema, so create it and make it the default one
+                "--spring.datasource.url=jdbc:h2:mem:ems;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+                        + "INIT=CREATE SCHEMA IF NOT EXISTS ems\\;SET SCHEMA ems",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password="));
+        return run(webApplicationType, arguments, extraProperties);
+    }
+
+    // boots against the MySQL ems database from application.properties, or the one given by the
+    // SPRING_DATASOURCE_URL/USERNAME/PASSWORD environment variables. The employees table is emptied, use a throwaway database.
+    static ConfigurableApplicationContext startOnMysql(String... extraProperties) {
+        ConfigurableApplicationContext context = run(WebApplicationType.NONE, new ArrayList<>(), extraProperties);
+        context.getBean(EmployeeRepository.class).deleteAllInBatch();
+        return context;
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType webApplicationType, List<String> arguments,
+                                                      String... extraProperties) {
+        arguments.add("--spring.jpa.show-sql=false");
+        arguments.add("--logging.level.root=WARN");
+        arguments.add("--logging.level.org.hibernate.SQL=WARN");
+        for (String property : extraProperties) {
+            arguments.add("--" + property);
+        }
+
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(webApplicationType)
+                .run(arguments.toArray(String[]::new));
+    }
+
+    // inserts employees first0/last0/employee0@ems.com ... through the batch create path
+    static void seed(ConfigurableApplicationContext context, int tableSize) {
+        EmployeeService employeeService = context.getBean(EmployeeService.class);
+        List<Employee> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < tableSize; i++) {
+            batch.add(employee(i));
+            if(batch.size() == SEED_BATCH_SIZE || i == tableSize - 1) {
+                employeeService.saveEmployees(batch);
+                batch = new ArrayList<>(SEED_BATCH_SIZE);
+            }
+        }
+    }
+
+    static Employee employee(long i) {
+        return Employee.builder()
+                .firstName("first" + i)
+                .lastName("last" + i)
+                .email("employee" + i + "@ems.com")
+                .build();
+    }
+}
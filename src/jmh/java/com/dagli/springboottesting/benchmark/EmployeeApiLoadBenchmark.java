@@ -0,0 +1,85 @@
+package com.dagli.springboottesting.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// HTTP load test of the employee endpoints with platform threads vs the virtual-threads profile.
+// Many concurrent clients so the request thread pool, not the client, is the bottleneck.
+// The virtual mode needs a JDK 21 runtime.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(256)
+@Fork(1)
+public class EmployeeApiLoadBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"10000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+
+    private final AtomicLong nextEmployee = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start(WebApplicationType.SERVLET,
+                "server.port=0",
+                "spring.profiles.active=" + ("virtual".equals(threads) ? "virtual-threads" : "default"));
+        BenchmarkContext.seed(context, tableSize);
+        nextEmployee.set(tableSize);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/v1/employees";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getEmployeeById() throws IOException, InterruptedException {
+        long id = ThreadLocalRandom.current().nextInt(tableSize) + 1;
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET().build());
+    }
+
+    @Benchmark
+    public int getEmployeesPage() throws IOException, InterruptedException {
+        long after = ThreadLocalRandom.current().nextInt(tableSize);
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/page?size=50&after=" + after)).GET().build());
+    }
+
+    @Benchmark
+    public int createEmployee() throws IOException, InterruptedException {
+        long i = nextEmployee.getAndIncrement();
+        String body = "{\"firstName\":\"first" + i + "\",\"lastName\":\"last" + i
+                + "\",\"email\":\"employee" + i + "@ems.com\"}";
+        return send(HttpRequest.newBuilder(URI.create(baseUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
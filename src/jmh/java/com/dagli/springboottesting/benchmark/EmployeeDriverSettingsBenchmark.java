@@ -0,0 +1,115 @@
+package com.dagli.springboottesting.benchmark;
+
+import com.dagli.springboottesting.dto.EmployeeBatchResult;
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.repository.EmployeeRepository;
+import com.dagli.springboottesting.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// default Hikari/Connector-J settings vs the prod profile, on a real MySQL since the driver settings
+// (statement caches, rewriteBatchedStatements) do not apply to H2. See BenchmarkContext.startOnMysql.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class EmployeeDriverSettingsBenchmark {
+
+    private static final int INSERT_BATCH_SIZE = 100;
+
+    @Param({"default", "prod"})
+    private String profile;
+
+    @Param({"100000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+    private EmployeeService employeeService;
+    // the id generator keeps counting across trials, so the seeded ids do not start at 1
+    private long[] ids;
+
+    private final AtomicLong nextEmployee = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.startOnMysql("spring.profiles.active=" + profile);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        employeeService = context.getBean(EmployeeService.class);
+        BenchmarkContext.seed(context, tableSize);
+        ids = employeeRepository.findAll().stream().mapToLong(Employee::getId).toArray();
+        nextEmployee.set(tableSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        employeeRepository.deleteAllInBatch();
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> findByEmail() {
+        return employeeRepository.findByEmail("employee" + randomRow() + "@ems.com");
+    }
+
+    @Benchmark
+    public Set<String> findExistingEmails() {
+        int row = randomRow();
+        return employeeRepository.findExistingEmails(List.of(
+                "employee" + row + "@ems.com", "employee" + (row + 1) + "@ems.com", "missing@ems.com"));
+    }
+
+    @Benchmark
+    public Employee findByJPQL() {
+        int row = randomRow();
+        return employeeRepository.findByJPQL("first" + row, "last" + row);
+    }
+
+    @Benchmark
+    public Employee findByNativeSql() {
+        int row = randomRow();
+        return employeeRepository.findByNativeSql("first" + row, "last" + row);
+    }
+
+    @Benchmark
+    public Employee findByFirstNameAndLastName() {
+        int row = randomRow();
+        return employeeRepository.findByFirstNameAndLastName("first" + row, "last" + row);
+    }
+
+    @Benchmark
+    public Optional<Employee> findById() {
+        return employeeRepository.findById(randomId());
+    }
+
+    // JDBC batch of INSERT_BATCH_SIZE rows, a multi row INSERT with rewriteBatchedStatements
+    @Benchmark
+    @OperationsPerInvocation(INSERT_BATCH_SIZE)
+    public List<EmployeeBatchResult> saveEmployees() {
+        long first = nextEmployee.getAndAdd(INSERT_BATCH_SIZE);
+        List<Employee> employees = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (long i = first; i < first + INSERT_BATCH_SIZE; i++) {
+            employees.add(BenchmarkContext.employee(i));
+        }
+        return employeeService.saveEmployees(employees);
+    }
+
+    private int randomRow() {
+        return ThreadLocalRandom.current().nextInt(tableSize);
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
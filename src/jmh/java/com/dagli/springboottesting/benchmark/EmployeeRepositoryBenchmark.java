@@ -0,0 +1,109 @@
+package com.dagli.springboottesting.benchmark;
+
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeRepositoryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        BenchmarkContext.seed(context, tableSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> findByEmail() {
+        return employeeRepository.findByEmail("employee" + randomRow() + "@ems.com");
+    }
+
+    @Benchmark
+    public Set<String> findExistingEmails() {
+        int row = randomRow();
+        return employeeRepository.findExistingEmails(List.of(
+                "employee" + row + "@ems.com", "employee" + (row + 1) + "@ems.com", "missing@ems.com"));
+    }
+
+    @Benchmark
+    public Employee findByJPQL() {
+        int row = randomRow();
+        return employeeRepository.findByJPQL("first" + row, "last" + row);
+    }
+
+    @Benchmark
+    public Employee findByJPQLNamedParams() {
+        int row = randomRow();
+        return employeeRepository.findByJPQLNamedParams("first" + row, "last" + row);
+    }
+
+    @Benchmark
+    public Employee findByNativeSql() {
+        int row = randomRow();
+        return employeeRepository.findByNativeSql("first" + row, "last" + row);
+    }
+
+    @Benchmark
+    public Employee findByNativeSqlNamedParams() {
+        int row = randomRow();
+        return employeeRepository.findByNativeSqlNamedParams("first" + row, "last" + row);
+    }
+
+    @Benchmark
+    public Employee findByFirstNameAndLastName() {
+        int row = randomRow();
+        return employeeRepository.findByFirstNameAndLastName("first" + row, "last" + row);
+    }
+
+    @Benchmark
+    public Optional<Employee> findById() {
+        return employeeRepository.findById((long) randomRow() + 1);
+    }
+
+    @Benchmark
+    public List<Employee> findByIdGreaterThanOrderByIdAsc() {
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(randomRow(), PageRequest.of(0, 50));
+    }
+
+    @Benchmark
+    public Employee updateByMerge() {
+        Employee employee = employeeRepository.findById((long) randomRow() + 1).orElseThrow();
+        employee.setFirstName("updated" + employee.getId());
+        return employeeRepository.save(employee);
+    }
+
+    @Benchmark
+    public int updateBySingleStatement() {
+        int row = randomRow();
+        return employeeRepository.updateEmployee((long) row + 1, "updated" + row, "last" + row, "employee" + row + "@ems.com");
+    }
+
+    private int randomRow() {
+        return ThreadLocalRandom.current().nextInt(tableSize);
+    }
+}
@@ -0,0 +1,89 @@
+package com.dagli.springboottesting.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+// time to first byte and to the last byte of the large list responses, plain and gzip compressed.
+// HttpClient does not decompress, so what it reads is what went over the wire; the byte count of
+// each combination is printed once per trial, look for "on the wire" in the output.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeResponseCompressionBenchmark {
+
+    @Param({"", "/stream", "/export?format=ndjson", "/page?size=50"})
+    private String path;
+
+    @Param({"identity", "gzip"})
+    private String acceptEncoding;
+
+    @Param({"10000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest request;
+    private InputStream unread;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, InterruptedException {
+        context = BenchmarkContext.start(WebApplicationType.SERVLET, "server.port=0");
+        BenchmarkContext.seed(context, tableSize);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/employees" + path))
+                .header("Accept-Encoding", acceptEncoding)
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        System.out.printf("%nGET %s with %s: %d bytes on the wire%n", path.isEmpty() ? "/" : path, acceptEncoding,
+                response.body().length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // the rest of the body is read in drain(), outside the measured time; closing the connection
+    // early instead would leave the server streaming into it and queue up the next requests
+    @Benchmark
+    public int timeToFirstByte() throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        unread = response.body();
+        return unread.read();
+    }
+
+    @TearDown(Level.Invocation)
+    public void drain() throws IOException {
+        if(unread != null) {
+            try (InputStream body = unread) {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+            unread = null;
+        }
+    }
+
+    @Benchmark
+    public long fullResponse() throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            return body.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
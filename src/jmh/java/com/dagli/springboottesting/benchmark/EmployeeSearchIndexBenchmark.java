@@ -0,0 +1,70 @@
+package com.dagli.springboottesting.benchmark;
+
+import com.dagli.springboottesting.dto.EmployeeSummary;
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.service.search.EmployeeSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// the index alone, no Spring context or database: names are drawn from small pools so that
+// short prefixes hit the same skewed, very long postings lists a real directory would have
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EmployeeSearchIndexBenchmark {
+
+    private static final String[] FIRST_NAMES = {"ahmet", "ali", "anna", "ayse", "berk", "can", "deniz", "elif",
+            "emre", "eren", "fatma", "hakan", "irem", "james", "john", "kemal", "mary", "mehmet", "murat", "zeynep"};
+    private static final String[] LAST_NAMES = {"aksoy", "arslan", "celik", "dagli", "demir", "dogan", "kaya",
+            "kilic", "koc", "kurt", "ozturk", "sahin", "smith", "yildiz", "yilmaz"};
+    private static final String[] QUERIES = {"a", "de", "eren", "dagli", "mehmet k", "john smi", "yil", "emre.dogan1"};
+
+    @Param({"1000000"})
+    private int indexSize;
+
+    private EmployeeSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        index = new EmployeeSearchIndex(256);
+        Random random = new Random(42);
+        for (int i = 1; i <= indexSize; i++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            index.put(Employee.builder()
+                    .id(i)
+                    .firstName(firstName)
+                    .lastName(lastName)
+                    .email(firstName + "." + lastName + i + "@ems.com")
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> search() {
+        return index.search(QUERIES[ThreadLocalRandom.current().nextInt(QUERIES.length)], 10);
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> searchSingleLetter() {
+        return index.search("m", 10);
+    }
+
+    @Benchmark
+    public void update() {
+        int id = ThreadLocalRandom.current().nextInt(1, indexSize + 1);
+        index.put(Employee.builder()
+                .id(id)
+                .firstName(FIRST_NAMES[id % FIRST_NAMES.length])
+                .lastName(LAST_NAMES[id % LAST_NAMES.length])
+                .email("updated" + id + "@ems.com")
+                .build());
+    }
+}
@@ -0,0 +1,79 @@
+package com.dagli.springboottesting.benchmark;
+
+import com.dagli.springboottesting.dto.EmployeeSummary;
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.repository.EmployeeRepository;
+import com.dagli.springboottesting.service.EmployeeService;
+import com.dagli.springboottesting.service.cache.EmployeeCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private EmployeeCache employeeCache;
+    private long[] ids;
+
+    private final AtomicLong nextEmployee = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        employeeService = context.getBean(EmployeeService.class);
+        employeeCache = context.getBean(EmployeeCache.class);
+        BenchmarkContext.seed(context, tableSize);
+        ids = context.getBean(EmployeeRepository.class).findAll().stream().mapToLong(Employee::getId).toArray();
+        nextEmployee.set(tableSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(BenchmarkContext.employee(nextEmployee.getAndIncrement()));
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeByIdUncached() {
+        employeeCache.clear();
+        return employeeService.getEmployeeById(randomId());
+    }
+
+    @Benchmark
+    public List<Employee> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> getEmployeeSummaries() {
+        return employeeService.getEmployeeSummaries();
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,72 @@
+package com.dagli.springboottesting.benchmark;
+
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.json.EmployeeJsonModule;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// encode/decode time of the formats EmployeeController negotiates, for a single employee and a bulk
+// list, with mappers configured the way JacksonBinaryFormatsConfig builds them. The payload size of
+// each combination is printed once per trial, look for "payload" in the output.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeWireFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"1", "1000"})
+    private int employeeCount;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader reader;
+    private List<Employee> employees;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory).modulesToInstall(new EmployeeJsonModule()).build();
+        reader = objectMapper.readerFor(new TypeReference<List<Employee>>() { });
+        employees = new ArrayList<>(employeeCount);
+        for (int i = 1; i <= employeeCount; i++) {
+            employees.add(Employee.builder()
+                    .id(i)
+                    .firstName("first" + i)
+                    .lastName("last" + i)
+                    .email("employee" + i + "@ems.com")
+                    .version((long) i % 7)
+                    .build());
+        }
+        payload = encode();
+        System.out.printf("%n%s payload for %d employee(s): %d bytes%n", format, employeeCount, payload.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return employeeCount == 1 ? objectMapper.writeValueAsBytes(employees.get(0)) : objectMapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return employeeCount == 1 ? objectMapper.readValue(payload, Employee.class) : reader.readValue(payload);
+    }
+}
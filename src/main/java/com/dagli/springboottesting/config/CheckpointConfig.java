@@ -0,0 +1,80 @@
+package com.dagli.springboottesting.config;
+
+import com.dagli.springboottesting.startup.CheckpointRestoreResource;
+import com.dagli.springboottesting.startup.EmployeeApiWarmup;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+// warm start options, both off by default:
+// employee.warmup.enabled=true runs EmployeeApiWarmup once the application is ready; with employee.warmup.then=exit
+// the process ends after it (the training run of an AppCDS archive), with employee.warmup.then=checkpoint it takes
+// a CRaC checkpoint of the warm process. employee.checkpoint.enabled=true prepares Tomcat and the connection pools
+// for a checkpoint, whether it is taken after the warm-up or with jcmd <pid> JDK.checkpoint.
+// scripts/measure-startup.sh builds the archive and the checkpoint and compares them with a cold start.
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+public class CheckpointConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "employee.warmup", name = "enabled", havingValue = "true")
+    public EmployeeApiWarmup employeeApiWarmup(ObjectMapper objectMapper,
+                                               @Value("${employee.warmup.iterations:200}") int iterations,
+                                               @Value("${employee.warmup.then:run}") EmployeeApiWarmup.Then then,
+                                               @Value("${employee.checkpoint.enabled:false}") boolean checkpointEnabled) {
+        if(then == EmployeeApiWarmup.Then.CHECKPOINT && !checkpointEnabled) {
+            // the checkpoint would fail on the listening socket and the pooled connections
+            throw new IllegalStateException("employee.warmup.then=checkpoint needs employee.checkpoint.enabled=true");
+        }
+        return new EmployeeApiWarmup(objectMapper, iterations, then);
+    }
+
+    @Bean(initMethod = "register")
+    @ConditionalOnProperty(prefix = "employee.checkpoint", name = "enabled", havingValue = "true")
+    public CheckpointRestoreResource checkpointRestoreResource(ObjectProvider<HikariDataSource> dataSources,
+                                                               ApplicationContext applicationContext,
+                                                               @Value("${employee.checkpoint.drain-timeout:10s}") Duration drainTimeout) {
+        // the primary and the replica pool with ReadReplicaDataSourceConfig, the auto-configured one otherwise
+        return new CheckpointRestoreResource(dataSources.orderedStream().toList(),
+                () -> applicationContext instanceof WebServerApplicationContext webContext
+                        && webContext.getWebServer() instanceof TomcatWebServer tomcat ? tomcat : null,
+                drainTimeout);
+    }
+
+    // Tomcat binds the port when a connector is initialized and only releases it when it is destroyed,
+    // unbound on stop the connector can be stopped for the checkpoint and started again after the restore
+    @Bean
+    @ConditionalOnProperty(prefix = "employee.checkpoint", name = "enabled", havingValue = "true")
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> unbindOnStopCustomizer() {
+        return factory -> factory.addConnectorCustomizers(connector -> connector.setProperty("bindOnInit", "false"));
+    }
+
+    // suspendPool refuses to work on a pool that was not configured for it. Not on by default because every
+    // getConnection then goes through a semaphore.
+    @Bean
+    @ConditionalOnProperty(prefix = "employee.checkpoint", name = "enabled", havingValue = "true")
+    public static BeanPostProcessor hikariPoolSuspensionPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if(bean instanceof HikariDataSource dataSource) {
+                    dataSource.setAllowPoolSuspension(true);
+                }
+                return bean;
+            }
+        };
+    }
+}
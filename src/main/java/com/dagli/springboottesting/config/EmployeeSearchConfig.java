@@ -0,0 +1,30 @@
+package com.dagli.springboottesting.config;
+
+import com.dagli.springboottesting.service.EmployeeService;
+import com.dagli.springboottesting.service.search.EmployeeSearchIndex;
+import com.dagli.springboottesting.service.search.EmployeeSearchIndexLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// enabled with employee.search.enabled=true: GET /api/v1/employees/search is served from an in-memory index
+// of every employee, filled by a full table scan on every start. It takes roughly 750 bytes of heap per
+// employee, so it is opt-in; without it /search answers 404 and writes skip the index.
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "employee.search", name = "enabled", havingValue = "true")
+public class EmployeeSearchConfig {
+
+    @Bean
+    public EmployeeSearchIndex employeeSearchIndex(@Value("${employee.search.max-candidates:256}") int maxCandidates) {
+        return new EmployeeSearchIndex(maxCandidates);
+    }
+
+    @Bean
+    public EmployeeSearchIndexLoader employeeSearchIndexLoader(EmployeeService employeeService,
+                                                               EmployeeSearchIndex employeeSearchIndex) {
+        return new EmployeeSearchIndexLoader(employeeService, employeeSearchIndex);
+    }
+}
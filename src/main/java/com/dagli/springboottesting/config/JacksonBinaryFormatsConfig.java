@@ -0,0 +1,30 @@
+package com.dagli.springboottesting.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// lets internal callers send and accept application/cbor or application/x-jackson-smile instead of JSON.
+// Spring MVC would register both converters on its own once the dataformats are on the classpath, but with
+// plain mappers; these are built from Spring Boot's builder so spring.jackson.* settings and Module beans
+// (EmployeeJsonModule) apply to every format. JSON stays first, so Accept: */* still gets JSON.
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+public class JacksonBinaryFormatsConfig {
+
+    // the builder is a prototype bean, each converter gets its own
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,35 @@
+package com.dagli.springboottesting.config;
+
+import com.dagli.springboottesting.metrics.EmployeeCacheMetrics;
+import com.dagli.springboottesting.metrics.SqlStatementMetricsFilter;
+import com.dagli.springboottesting.service.cache.EmployeeCache;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// controller endpoints are timed by Spring MVC (http.server.requests) and repository methods by
+// Spring Data (spring.data.repository.invocations); this adds @Timed support for the service layer,
+// the per-request SQL statement summary and the employee cache counters
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    @Profile("!reactive")
+    public SqlStatementMetricsFilter sqlStatementMetricsFilter(MeterRegistry meterRegistry) {
+        return new SqlStatementMetricsFilter(meterRegistry);
+    }
+
+    // a MeterBinder bean is bound to the registry by Spring Boot
+    @Bean
+    @Profile("!reactive")
+    public EmployeeCacheMetrics employeeCacheMetrics(EmployeeCache employeeCache) {
+        return new EmployeeCacheMetrics(employeeCache);
+    }
+}
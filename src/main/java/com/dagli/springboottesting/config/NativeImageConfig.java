@@ -0,0 +1,39 @@
+package com.dagli.springboottesting.config;
+
+import com.dagli.springboottesting.dto.EmployeeSummary;
+import com.dagli.springboottesting.metrics.SqlLogSamplingFilter;
+import com.dagli.springboottesting.metrics.SqlStatementCounter;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+
+// reflection the AOT processing of the native profile cannot find by itself: classes that are only named
+// in application.properties, logback-spring.xml or a JPQL constructor expression, and the JDK 21 method
+// VirtualThreadConfig looks up. Nothing here is used on the JVM.
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeImageConfig.EmployeeRuntimeHints.class)
+public class NativeImageConfig {
+
+    static class EmployeeRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // hibernate.session_factory.statement_inspector
+            hints.reflection().registerType(SqlStatementCounter.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            // the <filter> of the SQL appender, configured through its setters
+            hints.reflection().registerType(SqlLogSamplingFilter.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            // select new ...EmployeeSummary(e.id, e.firstName, e.lastName, e.email)
+            hints.reflection().registerType(EmployeeSummary.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            hints.reflection().registerType(TypeReference.of(Executors.class),
+                    builder -> builder.withMethod("newVirtualThreadPerTaskExecutor", List.of(), ExecutableMode.INVOKE));
+        }
+    }
+}
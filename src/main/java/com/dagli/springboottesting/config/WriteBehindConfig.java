@@ -0,0 +1,102 @@
+package com.dagli.springboottesting.config;
+
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.repository.EmployeeRepository;
+import com.dagli.springboottesting.service.EmployeeService;
+import com.dagli.springboottesting.service.Impl.WriteBehindEmployeeServiceImpl;
+import com.dagli.springboottesting.service.cache.EmployeeCache;
+import com.dagli.springboottesting.service.search.EmployeeSearchIndex;
+import com.dagli.springboottesting.service.writebehind.EmployeeWrite;
+import com.dagli.springboottesting.service.writebehind.EmployeeWriteFlusher;
+import com.dagli.springboottesting.service.writebehind.EmployeeWriteListener;
+import com.dagli.springboottesting.service.writebehind.EmployeeWriteLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// enabled with employee.write-behind.enabled=true: creates and updates are acknowledged once they are
+// in the local write log, and a background flusher batch-writes them to the database.
+// The log directory has to survive restarts, whatever is in it is replayed on the next start.
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "employee.write-behind", name = "enabled", havingValue = "true")
+public class WriteBehindConfig {
+
+    @Bean(destroyMethod = "close")
+    public EmployeeWriteLog employeeWriteLog(@Value("${employee.write-behind.directory:data/write-behind}") Path directory,
+                                             @Value("${employee.write-behind.segment-size:64MB}") DataSize segmentSize,
+                                             @Value("${employee.write-behind.force-on-append:false}") boolean forceOnAppend) {
+        return new EmployeeWriteLog(directory, (int) segmentSize.toBytes(), forceOnAppend);
+    }
+
+    @Bean
+    public EmployeeWriteFlusher employeeWriteFlusher(EmployeeWriteLog employeeWriteLog, NamedParameterJdbcTemplate jdbcTemplate,
+                                                     PlatformTransactionManager transactionManager,
+                                                     @Value("${employee.write-behind.batch-size:1000}") int batchSize,
+                                                     @Value("${employee.write-behind.flush-interval:100ms}") Duration flushInterval,
+                                                     ObjectProvider<WriteBehindEmployeeServiceImpl> writeBehindEmployeeService,
+                                                     MeterRegistry meterRegistry) {
+        // looked up lazily, the service itself needs the flusher
+        EmployeeWriteListener listener = new EmployeeWriteListener() {
+            @Override
+            public void rejected(EmployeeWrite write) {
+                writeBehindEmployeeService.getObject().rejected(write);
+            }
+
+            @Override
+            public void written(EmployeeWrite write) {
+                writeBehindEmployeeService.getObject().written(write);
+            }
+        };
+        return new EmployeeWriteFlusher(employeeWriteLog, jdbcTemplate, new TransactionTemplate(transactionManager),
+                batchSize, flushInterval, listener, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public WriteBehindEmployeeServiceImpl writeBehindEmployeeService(@Qualifier("employeeServiceImpl") EmployeeService employeeService,
+                                                                     EmployeeRepository employeeRepository,
+                                                                     EmployeeCache employeeCache,
+                                                                     ObjectProvider<EmployeeSearchIndex> employeeSearchIndex,
+                                                                     EmployeeWriteLog employeeWriteLog,
+                                                                     EmployeeWriteFlusher employeeWriteFlusher,
+                                                                     EntityManagerFactory entityManagerFactory) {
+        return new WriteBehindEmployeeServiceImpl(employeeService, employeeRepository, employeeCache, employeeSearchIndex.getIfAvailable(),
+                employeeWriteLog, employeeWriteFlusher, employeeIdGenerator(entityManagerFactory));
+    }
+
+    // ids come from the entity's own pooled table generator, so they never collide with the ones
+    // Hibernate hands out for saveEmployees; most calls are served from the pool without a database round trip
+    private static LongSupplier employeeIdGenerator(EntityManagerFactory entityManagerFactory) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        // a @TableGenerator runs before the insert
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Employee.class)
+                .getGenerator();
+        return () -> {
+            try (StatelessSession session = sessionFactory.openStatelessSession()) {
+                return (Long) generator.generate((SharedSessionContractImplementor) session, null, null, EventType.INSERT);
+            }
+        };
+    }
+}
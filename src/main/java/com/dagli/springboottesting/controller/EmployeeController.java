@@ -1,61 +1,413 @@
 package com.dagli.springboottesting.controller;
 
+import com.dagli.springboottesting.dto.EmployeeBatchResult;
+import com.dagli.springboottesting.dto.EmployeeImportReport;
+import com.dagli.springboottesting.dto.EmployeePage;
+import com.dagli.springboottesting.dto.EmployeeSummary;
 import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.service.EmployeeImportService;
 import com.dagli.springboottesting.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static com.dagli.springboottesting.controller.EmployeeETags.*;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/employees")
 public class EmployeeController {
 
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 1000;
+    static final int STREAM_CHUNK_SIZE = 500;
+    static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    static final int MAX_SEARCH_LIMIT = 100;
+
+    static final String IMPORT_ID_HEADER = "Import-Id";
+    static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
     private EmployeeService employeeService;
+    private EmployeeImportService employeeImportService;
+    private ObjectMapper objectMapper;
+    private ObjectMapper cborMapper;
+    private ObjectMapper smileMapper;
+    private IdempotencyStore idempotencyStore;
 
-    public EmployeeController(EmployeeService employeeService) {
+    // the binary format mappers are the ones of the message converters, see JacksonBinaryFormatsConfig
+    public EmployeeController(EmployeeService employeeService, EmployeeImportService employeeImportService,
+                              ObjectMapper objectMapper, MappingJackson2CborHttpMessageConverter cborHttpMessageConverter,
+                              MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter,
+                              IdempotencyStore idempotencyStore) {
         this.employeeService = employeeService;
+        this.employeeImportService = employeeImportService;
+        this.objectMapper = objectMapper;
+        this.cborMapper = cborHttpMessageConverter.getObjectMapper();
+        this.smileMapper = smileHttpMessageConverter.getObjectMapper();
+        this.idempotencyStore = idempotencyStore;
     }
 
+    // with an Idempotency-Key a retried create gets the original response instead of a duplicate email error
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Employee createEmployee(@RequestBody Employee employee) {
-        return employeeService.saveEmployee(employee);
+    public ResponseEntity<Employee> createEmployee(@RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                   @RequestBody Employee employee) {
+        if(idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(employeeService.saveEmployee(employee));
+        }
+        return idempotencyStore.execute(idempotencyKey, fingerprint("POST", null, employee),
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(employeeService.saveEmployee(employee)));
+    }
+
+    @PostMapping("batch")
+    public ResponseEntity<List<EmployeeBatchResult>> createEmployees(@RequestBody List<Employee> employees) {
+        if(employees.isEmpty() || employees.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(employeeService.saveEmployees(employees));
+    }
+
+    // reads the body as it arrives and saves it chunk by chunk. Send an Import-Id header to follow the
+    // progress of a large upload from GET import/{id} while it runs; the final report is returned here.
+    @PostMapping(value = "import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<EmployeeImportReport> importEmployees(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                @RequestHeader(value = IMPORT_ID_HEADER, required = false) String importId,
+                                                                InputStream body) {
+        String id = importId != null ? importId : UUID.randomUUID().toString();
+        EmployeeImportService.Format format = TEXT_CSV.isCompatibleWith(contentType)
+                ? EmployeeImportService.Format.CSV
+                : EmployeeImportService.Format.NDJSON;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        EmployeeImportReport report = employeeImportService.importEmployees(id, format, new InputStreamReader(body, charset));
+        if(report.getStatus() == EmployeeImportReport.Status.RUNNING) {
+            // another upload with this Import-Id is still running
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(report);
+        }
+        // the id comes from the client, so it is encoded into the path rather than trusted to be a valid URI
+        URI location = UriComponentsBuilder.fromPath("/api/v1/employees/import/{id}").encode().buildAndExpand(id).toUri();
+        return ResponseEntity.created(location).body(report);
     }
 
+    @GetMapping("import/{id}")
+    public ResponseEntity<EmployeeImportReport> getImport(@PathVariable("id") String importId) {
+        return employeeImportService.getImport(importId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // JSON clients get the same array written page by page and flushed per chunk, so the first employees
+    // (compressed by server.compression) are on the wire while later pages are still being read
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public List<Employee> getAllEmployees() {
-        return employeeService.getAllEmployees();
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees() {
+        return streamAllEmployees(objectMapper, MediaType.APPLICATION_JSON);
+    }
+
+    // the binary formats are the same array, streamed the same way in the format's own encoding
+    @GetMapping(produces = MediaType.APPLICATION_CBOR_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployeesAsCbor() {
+        return streamAllEmployees(cborMapper, MediaType.APPLICATION_CBOR);
+    }
+
+    @GetMapping(produces = APPLICATION_SMILE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployeesAsSmile() {
+        return streamAllEmployees(smileMapper, MediaType.parseMediaType(APPLICATION_SMILE_VALUE));
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamAllEmployees(ObjectMapper mapper, MediaType contentType) {
+        StreamingResponseBody body = outputStream -> writeEmployees(mapper, outputStream, false);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .body(body);
+    }
+
+    // id/name/email projection of the list, served without hydrating entities
+    @GetMapping("summary")
+    public ResponseEntity<List<EmployeeSummary>> getEmployeeSummaries(@RequestParam(value = "after", required = false) Long after,
+                                                                      @RequestParam(value = "size", required = false) Integer size) {
+        if(size == null) {
+            return ResponseEntity.ok(employeeService.getEmployeeSummaries());
+        }
+        if(size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(employeeService.getEmployeeSummariesAfter(after, size));
+    }
+
+    @GetMapping("page")
+    public ResponseEntity<EmployeePage> getEmployeesPage(@RequestParam(value = "after", required = false) Long after,
+                                                         @RequestParam(value = "size", defaultValue = "50") int size) {
+        if(size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(employeeService.getEmployeesAfter(after, size));
+    }
+
+    // type-ahead search over name and email prefixes, best matches first
+    @GetMapping("search")
+    public ResponseEntity<List<EmployeeSummary>> searchEmployees(@RequestParam("q") String query,
+                                                                 @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if(limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        // 404 while search is switched off, like any other resource that is not there
+        return employeeService.searchEmployees(query, limit)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // streams the whole table page by page, so the heap only ever holds one chunk
+    @GetMapping("stream")
+    public ResponseEntity<StreamingResponseBody> streamEmployees(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        boolean ndjson = "ndjson".equals(format);
+        if(!ndjson && !"json".equals(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = outputStream -> writeEmployees(objectMapper, outputStream, ndjson);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // whole table export from a database cursor straight to the response, in constant heap.
+    // Compressed here, before the bytes reach the servlet buffers, when the client accepts gzip.
+    @GetMapping("export")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean csv = "csv".equals(format);
+        if(!csv && !"ndjson".equals(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE) : outputStream;
+            if(csv) {
+                exportCsv(target);
+            } else {
+                exportNdjson(target);
+            }
+            if(gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(csv ? new MediaType(TEXT_CSV, StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees." + format + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if(gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") Long employeeId) {
+    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") Long employeeId,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if(ifNoneMatch != null) {
+            // conditional GET: compare versions without loading or serializing the employee
+            Optional<Long> version = employeeService.getEmployeeVersion(employeeId);
+            if(version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if(eTagMatches(ifNoneMatch, version.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag(version.get())).build();
+            }
+        }
         return employeeService.getEmployeeById(employeeId)
-                .map(ResponseEntity::ok)
+                .map(employee -> withETag(ResponseEntity.ok(), employee.getVersion()).body(employee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping("{id}")
     public ResponseEntity<Employee> updateEmployee(@PathVariable("id") Long employeeId,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                   @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
                                                    @RequestBody Employee employee) {
-        return employeeService.getEmployeeById(employeeId)
-                .map(savedEmployee -> {
-                    savedEmployee.setFirstName(employee.getFirstName());
-                    savedEmployee.setLastName(employee.getLastName());
-                    savedEmployee.setEmail(employee.getEmail());
-
-                    Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-                    return new ResponseEntity<>(updatedEmployee,HttpStatus.OK);
-                })
-                .orElseGet(() -> ResponseEntity.notFound().build());
+        if(idempotencyKey == null) {
+            return update(employeeId, ifMatch, employee);
+        }
+        // a replayed 200 keeps its ETag; a replayed 412 stays a 412 even if the version has moved on since
+        return idempotencyStore.execute(idempotencyKey, fingerprint("PUT " + employeeId, ifMatch, employee),
+                () -> update(employeeId, ifMatch, employee));
+    }
+
+    private ResponseEntity<Employee> update(Long employeeId, String ifMatch, Employee employee) {
+        Long expectedVersion = null;
+        boolean anyVersion = ifMatch != null && ifMatch.trim().equals("*");
+        if(ifMatch != null && !anyVersion) {
+            expectedVersion = parseVersion(ifMatch);
+            if(expectedVersion == null) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        }
+
+        try {
+            // If-Match: * only holds when the employee exists (RFC 9110 13.1.1), so a missing one is a 412
+            return employeeService.updateEmployee(employeeId, employee, expectedVersion)
+                    .map(updatedEmployee -> withETag(ResponseEntity.ok(), updatedEmployee.getVersion()).body(updatedEmployee))
+                    .orElseGet(() -> anyVersion
+                            ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()
+                            : ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
     }
 
     @DeleteMapping("{id}")
     public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId) {
-        employeeService.deleteEmployee(employeeId);
+        if(!employeeService.deleteEmployee(employeeId)) {
+            return ResponseEntity.notFound().build();
+        }
 
         return new ResponseEntity<String>("Employee deleted successfully!.",HttpStatus.OK);
     }
+
+    // what makes two requests with the same Idempotency-Key the same request
+    private String fingerprint(String operation, String ifMatch, Employee employee) {
+        try {
+            return operation + " " + ifMatch + " " + objectMapper.writeValueAsString(employee);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    // writeObject would flush the response (and server.compression's deflater) after every employee
+    private static ObjectWriter streamingEmployeeWriter(ObjectMapper mapper) {
+        return mapper.writerFor(Employee.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // an array in the mapper's format, or with the JSON mapper optionally newline delimited
+    private void writeEmployees(ObjectMapper mapper, OutputStream outputStream, boolean ndjson) throws IOException {
+        ObjectWriter employeeWriter = streamingEmployeeWriter(mapper);
+        JsonGenerator generator = mapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        if(ndjson) {
+            generator.setRootValueSeparator(null);
+        } else {
+            generator.writeStartArray();
+        }
+        Long cursor = null;
+        do {
+            EmployeePage page = employeeService.getEmployeesAfter(cursor, STREAM_CHUNK_SIZE);
+            for (Employee employee : page.getEmployees()) {
+                employeeWriter.writeValue(generator, employee);
+                if(ndjson) {
+                    generator.writeRaw('\n');
+                }
+            }
+            generator.flush();
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        if(!ndjson) {
+            generator.writeEndArray();
+        }
+        generator.close();
+    }
+
+    private void exportCsv(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        writer.write("id,firstName,lastName,email,version\n");
+        try {
+            employeeService.exportEmployees(employee -> {
+                try {
+                    writer.write(Long.toString(employee.getId()));
+                    writer.write(',');
+                    writeCsvField(writer, employee.getFirstName());
+                    writer.write(',');
+                    writeCsvField(writer, employee.getLastName());
+                    writer.write(',');
+                    writeCsvField(writer, employee.getEmail());
+                    writer.write(',');
+                    writer.write(String.valueOf(employee.getVersion()));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void exportNdjson(OutputStream outputStream) throws IOException {
+        ObjectWriter employeeWriter = streamingEmployeeWriter(objectMapper);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        try {
+            employeeService.exportEmployees(employee -> {
+                try {
+                    employeeWriter.writeValue(generator, employee);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.close();
+    }
+
+    // RFC 4180, quoted only when needed
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if(value == null) {
+            return;
+        }
+        if(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if(acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if(parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
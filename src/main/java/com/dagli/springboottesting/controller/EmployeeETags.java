@@ -0,0 +1,49 @@
+package com.dagli.springboottesting.controller;
+
+import org.springframework.http.ResponseEntity;
+
+// the employee version as a strong ETag, shared by the MVC and the reactive controller
+final class EmployeeETags {
+
+    private EmployeeETags() {
+    }
+
+    static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, Long version) {
+        return version == null ? builder : builder.eTag(eTag(version));
+    }
+
+    // If-Match needs a single strong ETag here, since it is turned into the version the UPDATE is conditioned on
+    static Long parseVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if(tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // If-None-Match uses the weak comparison (RFC 9110 13.1.2)
+    static boolean eTagMatches(String header, long version) {
+        String current = eTag(version);
+        for (String tag : header.split(",")) {
+            tag = tag.trim();
+            if(tag.equals("*")) {
+                return true;
+            }
+            if(tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if(tag.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
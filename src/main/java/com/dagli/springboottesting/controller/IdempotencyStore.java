@@ -0,0 +1,67 @@
+package com.dagli.springboottesting.controller;
+
+import com.dagli.springboottesting.service.cache.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// remembers the response sent for an Idempotency-Key, so a client retrying a timed out request gets
+// the original result back without the request running again. Keys are forgotten after time-to-live,
+// or earlier once maximum-size keys are stored.
+@Component
+public class IdempotencyStore {
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final BoundedCache<String, Entry> responses;
+
+    public IdempotencyStore(@Value("${employee.idempotency.maximum-size:10000}") int maximumSize,
+                            @Value("${employee.idempotency.time-to-live:24h}") Duration timeToLive) {
+        this.responses = new BoundedCache<>(maximumSize, timeToLive);
+    }
+
+    // runs the request once per key. A retry replays the stored response, one arriving while the first is
+    // still running gets 409, and reusing a key for a different request (another fingerprint) gets 422.
+    // Server errors and exceptions are not stored, so those can be retried with the same key.
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String key, String fingerprint, Supplier<ResponseEntity<T>> request) {
+        Entry entry = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = responses.putIfAbsent(key, entry);
+        if(existing != null) {
+            if(!existing.fingerprint.equals(fingerprint)) {
+                return ResponseEntity.unprocessableEntity().build();
+            }
+            if(!existing.response.isDone()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            ResponseEntity<?> response = existing.response.join();
+            return (ResponseEntity<T>) ResponseEntity.status(response.getStatusCode())
+                    .headers(response.getHeaders())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(response.getBody());
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            responses.remove(key);
+            throw e;
+        }
+        if(response.getStatusCode().is5xxServerError()) {
+            responses.remove(key);
+        } else {
+            entry.response.complete(response);
+        }
+        return response;
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<ResponseEntity<?>> response) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.dagli.springboottesting.controller;
+
+import com.dagli.springboottesting.dto.EmployeeBatchResult;
+import com.dagli.springboottesting.dto.EmployeePage;
+import com.dagli.springboottesting.dto.EmployeeSummary;
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.dagli.springboottesting.controller.EmployeeETags.*;
+
+// the /api/v1/employees contract of EmployeeController on WebFlux + R2DBC, active with the reactive profile:
+// create, batch, list, page, summary, stream, get with ETag/If-None-Match, update with If-Match, delete.
+// Idempotency-Key, search, export, import and the CBOR/Smile formats are only served by EmployeeController.
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/employees")
+public class ReactiveEmployeeController {
+
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 1000;
+    // rows requested from the database at a time, so a slow client slows the query down instead of filling the heap
+    static final int STREAM_PREFETCH = 500;
+
+    private ReactiveEmployeeService employeeService;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Employee> createEmployee(@RequestBody Employee employee) {
+        return employeeService.saveEmployee(employee);
+    }
+
+    @PostMapping("batch")
+    public Mono<ResponseEntity<List<EmployeeBatchResult>>> createEmployees(@RequestBody List<Employee> employees) {
+        if(employees.isEmpty() || employees.size() > MAX_BATCH_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return employeeService.saveEmployees(employees).map(ResponseEntity::ok);
+    }
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<Employee> getAllEmployees() {
+        return employeeService.getAllEmployees().limitRate(STREAM_PREFETCH);
+    }
+
+    // id/name/email projection of the list
+    @GetMapping("summary")
+    public Mono<ResponseEntity<Flux<EmployeeSummary>>> getEmployeeSummaries(@RequestParam(value = "after", required = false) Long after,
+                                                                            @RequestParam(value = "size", required = false) Integer size) {
+        if(size == null) {
+            return Mono.just(ResponseEntity.ok(employeeService.getEmployeeSummaries().limitRate(STREAM_PREFETCH)));
+        }
+        if(size < 1 || size > MAX_PAGE_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return Mono.just(ResponseEntity.ok(employeeService.getEmployeeSummariesAfter(after, size)));
+    }
+
+    @GetMapping("page")
+    public Mono<ResponseEntity<EmployeePage>> getEmployeesPage(@RequestParam(value = "after", required = false) Long after,
+                                                               @RequestParam(value = "size", defaultValue = "50") int size) {
+        if(size < 1 || size > MAX_PAGE_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return employeeService.getEmployeesAfter(after, size).map(ResponseEntity::ok);
+    }
+
+    // the whole table, written as it is read: one employee per line, or a single JSON array with format=json
+    @GetMapping("stream")
+    public Mono<ResponseEntity<Flux<Employee>>> streamEmployees(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        boolean ndjson = "ndjson".equals(format);
+        if(!ndjson && !"json".equals(format)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return Mono.just(ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(employeeService.getAllEmployees().limitRate(STREAM_PREFETCH)));
+    }
+
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable("id") Long employeeId,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return employeeService.getEmployeeById(employeeId)
+                .map(employee -> {
+                    if(ifNoneMatch != null && employee.getVersion() != null && eTagMatches(ifNoneMatch, employee.getVersion())) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag(employee.getVersion())).<Employee>build();
+                    }
+                    return withETag(ResponseEntity.ok(), employee.getVersion()).body(employee);
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<Employee>> updateEmployee(@PathVariable("id") Long employeeId,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                         @RequestBody Employee employee) {
+        Long expectedVersion = null;
+        if(ifMatch != null && !ifMatch.trim().equals("*")) {
+            expectedVersion = parseVersion(ifMatch);
+            if(expectedVersion == null) {
+                return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+            }
+        }
+
+        return employeeService.updateEmployee(employeeId, employee, expectedVersion)
+                .map(updatedEmployee -> withETag(ResponseEntity.ok(), updatedEmployee.getVersion()).body(updatedEmployee))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorReturn(OptimisticLockingFailureException.class, ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+    }
+
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<String>> deleteEmployee(@PathVariable("id") long employeeId) {
+        return employeeService.deleteEmployee(employeeId)
+                .map(deleted -> deleted
+                        ? new ResponseEntity<String>("Employee deleted successfully!.", HttpStatus.OK)
+                        : ResponseEntity.notFound().<String>build());
+    }
+}
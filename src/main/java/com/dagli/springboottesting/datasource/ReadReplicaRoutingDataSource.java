@@ -0,0 +1,44 @@
+package com.dagli.springboottesting.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// read-only transactions go to the replica, everything else to the primary. Must sit behind a
+// LazyConnectionDataSourceProxy: the transaction manager asks for the connection before it marks
+// the transaction read-only, so the lookup has to wait for the first statement.
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    // reads each thread sent to the replica so far
+    private static final ThreadLocal<long[]> REPLICA_READS = ThreadLocal.withInitial(() -> new long[1]);
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (ReadYourWrites.isPinnedToPrimary()) {
+                return Target.PRIMARY;
+            }
+            REPLICA_READS.get()[0]++;
+            return Target.REPLICA;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            ReadYourWrites.recordWrite();
+        }
+        return Target.PRIMARY;
+    }
+
+    // compare before and after a read to tell whether it came from the replica, which may lag behind the
+    // primary. Never moves without a replica.
+    public static long replicaReads() {
+        return REPLICA_READS.get()[0];
+    }
+}
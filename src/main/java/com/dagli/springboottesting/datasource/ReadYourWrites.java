@@ -0,0 +1,47 @@
+package com.dagli.springboottesting.datasource;
+
+// read-your-writes state of the current request. Once a request has written to the primary, or the client
+// wrote within the last few seconds (see ReadYourWritesFilter), its read-only transactions stay on the
+// primary instead of a replica that may not have caught up yet.
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Context> CONTEXT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    // onFirstWrite runs once, when the request first writes, e.g. to tell the client to stay on the primary
+    public static void begin(boolean pinnedToPrimary, Runnable onFirstWrite) {
+        CONTEXT.set(new Context(pinnedToPrimary, onFirstWrite));
+    }
+
+    public static void end() {
+        CONTEXT.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        Context context = CONTEXT.get();
+        return context != null && context.pinnedToPrimary;
+    }
+
+    static void recordWrite() {
+        Context context = CONTEXT.get();
+        if (context != null && !context.written) {
+            context.written = true;
+            context.pinnedToPrimary = true;
+            context.onFirstWrite.run();
+        }
+    }
+
+    private static final class Context {
+
+        private final Runnable onFirstWrite;
+        private boolean pinnedToPrimary;
+        private boolean written;
+
+        private Context(boolean pinnedToPrimary, Runnable onFirstWrite) {
+            this.pinnedToPrimary = pinnedToPrimary;
+            this.onFirstWrite = onFirstWrite;
+        }
+    }
+}
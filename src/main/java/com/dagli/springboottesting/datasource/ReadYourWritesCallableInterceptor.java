@@ -0,0 +1,30 @@
+package com.dagli.springboottesting.datasource;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+// streaming responses (StreamingResponseBody runs as a Callable) read on an MVC async thread, outside
+// ReadYourWritesFilter, so the request's state is carried over to that thread. The response is usually
+// committed by the time the async part writes, so a write there does not set the cookie any more.
+public class ReadYourWritesCallableInterceptor implements CallableProcessingInterceptor {
+
+    private static final String PINNED_ATTRIBUTE = ReadYourWritesCallableInterceptor.class.getName() + ".pinned";
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        request.setAttribute(PINNED_ATTRIBUTE, ReadYourWrites.isPinnedToPrimary(), NativeWebRequest.SCOPE_REQUEST);
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        Boolean pinned = (Boolean) request.getAttribute(PINNED_ATTRIBUTE, NativeWebRequest.SCOPE_REQUEST);
+        ReadYourWrites.begin(Boolean.TRUE.equals(pinned), () -> { });
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        ReadYourWrites.end();
+    }
+}
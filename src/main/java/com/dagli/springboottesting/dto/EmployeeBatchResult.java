@@ -0,0 +1,24 @@
+package com.dagli.springboottesting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// outcome of one item of a batch create, index is the position in the request body
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeBatchResult {
+
+    private int index;
+    private Long id;
+    private String error;
+
+    public static EmployeeBatchResult created(int index, long id) {
+        return new EmployeeBatchResult(index, id, null);
+    }
+
+    public static EmployeeBatchResult failed(int index, String error) {
+        return new EmployeeBatchResult(index, null, error);
+    }
+}
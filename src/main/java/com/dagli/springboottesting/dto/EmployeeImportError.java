@@ -0,0 +1,15 @@
+package com.dagli.springboottesting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// a rejected row of an import, line is the 1-based line number in the uploaded file
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeImportError {
+
+    private long line;
+    private String error;
+}
@@ -0,0 +1,54 @@
+package com.dagli.springboottesting.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// progress of an import, updated by the importing request after each chunk and readable meanwhile from
+// GET /api/v1/employees/import/{id}. Only the first MAX_ERRORS rejected rows are kept, failed counts all of them.
+@Getter
+public class EmployeeImportReport {
+
+    public static final int MAX_ERRORS = 100;
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private volatile Status status = Status.RUNNING;
+    private volatile long rows;
+    private volatile long imported;
+    private volatile long failed;
+    private volatile String error;
+    private final List<EmployeeImportError> errors = new CopyOnWriteArrayList<>();
+
+    public EmployeeImportReport(String id) {
+        this.id = id;
+    }
+
+    // single writer: only the importing thread calls the methods below
+
+    public void rowRead() {
+        rows++;
+    }
+
+    public void imported(long count) {
+        imported += count;
+    }
+
+    public void rejected(long line, String error) {
+        failed++;
+        if(errors.size() < MAX_ERRORS) {
+            errors.add(new EmployeeImportError(line, error));
+        }
+    }
+
+    public void completed() {
+        status = Status.COMPLETED;
+    }
+
+    public void failed(String error) {
+        this.error = error;
+        status = Status.FAILED;
+    }
+}
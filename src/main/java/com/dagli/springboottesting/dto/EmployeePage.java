@@ -0,0 +1,18 @@
+package com.dagli.springboottesting.dto;
+
+import com.dagli.springboottesting.entity.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// one keyset page of employees, next is the cursor for the following page (null on the last page)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeePage {
+
+    private List<Employee> employees;
+    private Long next;
+}
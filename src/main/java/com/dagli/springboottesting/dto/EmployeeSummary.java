@@ -0,0 +1,17 @@
+package com.dagli.springboottesting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// read-only view of an employee, built straight from the query result without hydrating an entity
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSummary {
+
+    private long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+}
@@ -9,14 +9,32 @@ import lombok.*;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "employees")
+@Table(name = "employees", indexes = {
+        @Index(name = Employee.EMAIL_CONSTRAINT, columnList = "email", unique = true),
+        // serves every first name + last name lookup in EmployeeRepository
+        @Index(name = "idx_employees_last_first", columnList = "lastName, firstName")
+})
+// also mapped for Spring Data R2DBC, used by the reactive profile
+@org.springframework.data.relational.core.mapping.Table("employees")
 public class Employee {
 
+    // the unique index on email, also created by the V2 migration
+    public static final String EMAIL_CONSTRAINT = "uk_employees_email";
+
+    // pooled table generator instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @org.springframework.data.annotation.Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "employee_id")
+    @TableGenerator(name = "employee_id", table = "id_generator", pkColumnName = "name",
+            valueColumnName = "next_id", pkColumnValue = "employees", allocationSize = 50)
     private long id;
 
     private String firstName;
     private String lastName;
     private String email;
+
+    // bumped on every update, used for optimistic locking and as the ETag of the resource
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
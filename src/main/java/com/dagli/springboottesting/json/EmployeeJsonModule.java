@@ -0,0 +1,62 @@
+package com.dagli.springboottesting.json;
+
+import com.dagli.springboottesting.entity.Employee;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+// picked up by Spring Boot's ObjectMapper, so every Employee written as JSON (single responses, lists,
+// pages and the streaming endpoints) goes through EmployeeJsonSerializer. It only takes over when the
+// BeanSerializer Jackson built would write exactly the same fields in the same order; with a naming
+// strategy, sorted properties, NON_EMPTY/NON_DEFAULT inclusion or a mix-in the default serializer stays.
+@Component
+public class EmployeeJsonModule extends SimpleModule {
+
+    private static final Set<JsonInclude.Include> SUPPORTED_INCLUSIONS = Set.of(JsonInclude.Include.ALWAYS,
+            JsonInclude.Include.USE_DEFAULTS, JsonInclude.Include.NON_NULL, JsonInclude.Include.NON_ABSENT);
+
+    public EmployeeJsonModule() {
+        super(EmployeeJsonModule.class.getSimpleName());
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDescription,
+                                                      JsonSerializer<?> serializer) {
+                if(beanDescription.getBeanClass() != Employee.class || !(serializer instanceof BeanSerializerBase beanSerializer)) {
+                    return serializer;
+                }
+                JsonInclude.Include inclusion = config.getDefaultPropertyInclusion(Employee.class).getValueInclusion();
+                if(!SUPPORTED_INCLUSIONS.contains(inclusion)) {
+                    return serializer;
+                }
+                boolean skipNulls = inclusion == JsonInclude.Include.NON_NULL || inclusion == JsonInclude.Include.NON_ABSENT;
+                return writesSameFields(beanSerializer, skipNulls) ? new EmployeeJsonSerializer(skipNulls) : serializer;
+            }
+        });
+    }
+
+    private static boolean writesSameFields(BeanSerializerBase serializer, boolean skipNulls) {
+        List<String> names = new ArrayList<>();
+        for (Iterator<PropertyWriter> properties = serializer.properties(); properties.hasNext(); ) {
+            PropertyWriter property = properties.next();
+            if(!(property instanceof BeanPropertyWriter writer) || writer.hasSerializer()
+                    || writer.willSuppressNulls() != skipNulls) {
+                return false;
+            }
+            names.add(property.getName());
+        }
+        return names.equals(Arrays.asList(EmployeeJsonSerializer.FIELD_NAMES));
+    }
+}
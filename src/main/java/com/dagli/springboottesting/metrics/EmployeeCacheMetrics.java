@@ -0,0 +1,37 @@
+package com.dagli.springboottesting.metrics;
+
+import com.dagli.springboottesting.service.cache.EmployeeCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// publishes the counters EmployeeCache keeps anyway; they are read when the registry is scraped,
+// nothing is recorded on the lookup path
+public class EmployeeCacheMetrics implements MeterBinder {
+
+    private final EmployeeCache employeeCache;
+
+    public EmployeeCacheMetrics(EmployeeCache employeeCache) {
+        this.employeeCache = employeeCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("employee.cache.hits", employeeCache, EmployeeCache::hitCount)
+                .description("Employee lookups answered from the cache")
+                .register(registry);
+        FunctionCounter.builder("employee.cache.misses", employeeCache, EmployeeCache::missCount)
+                .description("Employee lookups that went to the database")
+                .register(registry);
+        FunctionCounter.builder("employee.cache.evictions", employeeCache, EmployeeCache::evictionCount)
+                .description("Employees dropped from the cache, expired or over its maximum size")
+                .register(registry);
+        Gauge.builder("employee.cache.size", employeeCache, EmployeeCache::size)
+                .description("Employees in the cache")
+                .register(registry);
+        Gauge.builder("employee.cache.pending", employeeCache, EmployeeCache::pendingSize)
+                .description("Unflushed write-behind employees pinned in the cache")
+                .register(registry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.dagli.springboottesting.metrics;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// lets one in every sampleEvery SQL log events through, see logback-spring.xml
+public class SqlLogSamplingFilter extends Filter<ILoggingEvent> {
+
+    private final AtomicLong events = new AtomicLong();
+    private int sampleEvery = 100;
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        return events.getAndIncrement() % sampleEvery == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,96 @@
+package com.dagli.springboottesting.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Locale;
+
+// registered as Hibernate's statement inspector in application.properties, so it sees every statement
+// Hibernate prepares. A batched INSERT is prepared once, so counts are JDBC round trips rather than rows.
+// Counting only happens on threads that opened a scope, for example a request in SqlStatementMetricsFilter.
+public class SqlStatementCounter implements StatementInspector {
+
+    public enum Type { SELECT, INSERT, UPDATE, DELETE, OTHER }
+
+    private static final Type[] TYPES = Type.values();
+    private static final ThreadLocal<int[]> COUNTS = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] counts = COUNTS.get();
+        if (counts != null) {
+            counts[typeOf(sql).ordinal()]++;
+        }
+        return sql;
+    }
+
+    // scopes can be nested, e.g. a test counting around a MockMvc call that goes through the filter
+    public static Scope open() {
+        int[] counts = COUNTS.get();
+        boolean owner = counts == null;
+        if (owner) {
+            counts = new int[TYPES.length];
+            COUNTS.set(counts);
+        }
+        return new Scope(counts, counts.clone(), owner);
+    }
+
+    static Type typeOf(String sql) {
+        String statement = sql.stripLeading();
+        while (statement.startsWith("/*")) {
+            int end = statement.indexOf("*/");
+            if (end < 0) {
+                return Type.OTHER;
+            }
+            statement = statement.substring(end + 2).stripLeading();
+        }
+        int end = 0;
+        while (end < statement.length() && Character.isLetter(statement.charAt(end))) {
+            end++;
+        }
+        switch (statement.substring(0, end).toLowerCase(Locale.ROOT)) {
+            case "select":
+            case "with":
+                return Type.SELECT;
+            case "insert":
+                return Type.INSERT;
+            case "update":
+                return Type.UPDATE;
+            case "delete":
+                return Type.DELETE;
+            default:
+                return Type.OTHER;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final int[] counts;
+        private final int[] start;
+        private final boolean owner;
+
+        private Scope(int[] counts, int[] start, boolean owner) {
+            this.counts = counts;
+            this.start = start;
+            this.owner = owner;
+        }
+
+        public int count(Type type) {
+            return counts[type.ordinal()] - start[type.ordinal()];
+        }
+
+        public int total() {
+            int total = 0;
+            for (Type type : TYPES) {
+                total += count(type);
+            }
+            return total;
+        }
+
+        @Override
+        public void close() {
+            if (owner) {
+                COUNTS.remove();
+            }
+        }
+    }
+}
@@ -1,16 +1,41 @@
 package com.dagli.springboottesting.repository;
 
+import com.dagli.springboottesting.dto.EmployeeSummary;
 import com.dagli.springboottesting.entity.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+// query methods get no transaction by default: read-only ones so the finders can be routed to a read replica,
+// the modifying ones below override it
+@Transactional(readOnly = true)
 public interface EmployeeRepository extends JpaRepository<Employee,Long> {
 
     Optional<Employee> findByEmail(String email);
 
+    // answered from the unique email index, no entity is loaded
+    boolean existsByEmail(String email);
+
+    // version only, lets conditional requests be answered without loading the entity
+    @Query("select e.version from Employee e where e.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    // set-based duplicate check for batch inserts, one IN (...) query for the whole batch
+    @Query("select e.email from Employee e where e.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     // define custom query using JPQL with index params
     @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
     Employee findByJPQL(String firstName,String lastName);
@@ -29,4 +54,46 @@ public interface EmployeeRepository extends JpaRepository<Employee,Long> {
 
     // define custom query using method name
     Employee findByFirstNameAndLastName(String firstName, String lastName);
+
+    // keyset pagination: seek past the last seen id instead of using an offset
+    List<Employee> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    // forward only cursor for the export, rows are fetched from the database 1000 at a time.
+    // On MySQL this needs useCursorFetch=true, otherwise Connector/J reads the whole result set first.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAll();
+
+    // single statement writes, the affected row count tells whether the employee exists
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.firstName = :firstName, e.lastName = :lastName, e.email = :email, "
+            + "e.version = e.version + 1 where e.id = :id")
+    int updateEmployee(@Param("id") long id, @Param("firstName") String firstName,
+                       @Param("lastName") String lastName, @Param("email") String email);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.firstName = :firstName, e.lastName = :lastName, e.email = :email, "
+            + "e.version = e.version + 1 where e.id = :id and e.version = :version")
+    int updateEmployeeIfVersion(@Param("id") long id, @Param("firstName") String firstName,
+                                @Param("lastName") String lastName, @Param("email") String email,
+                                @Param("version") long version);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Employee e where e.id = :id")
+    int deleteEmployeeById(@Param("id") long id);
+
+    // constructor projections, no managed entities or dirty checking snapshots are created
+    @Query("select new com.dagli.springboottesting.dto.EmployeeSummary(e.id, e.firstName, e.lastName, e.email) "
+            + "from Employee e order by e.id")
+    List<EmployeeSummary> findAllSummaries();
+
+    @Query("select new com.dagli.springboottesting.dto.EmployeeSummary(e.id, e.firstName, e.lastName, e.email) "
+            + "from Employee e where e.id > :id order by e.id")
+    List<EmployeeSummary> findSummariesAfter(@Param("id") long id, Pageable pageable);
 }
@@ -0,0 +1,151 @@
+package com.dagli.springboottesting.repository;
+
+import com.dagli.springboottesting.entity.Employee;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.domain.Sort.Order.asc;
+import static org.springframework.data.domain.Sort.by;
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+// R2DBC counterpart of EmployeeRepository, only active with the reactive profile.
+// A template-backed class rather than a Spring Data interface, so the JPA repository
+// scanning of the default profile never has to deal with a reactive repository.
+@Repository
+@Profile("reactive")
+public class ReactiveEmployeeRepository {
+
+    // must match the allocationSize of the Employee id @TableGenerator
+    static final int ID_ALLOCATION_SIZE = 50;
+
+    private R2dbcEntityTemplate entityTemplate;
+    private DatabaseClient databaseClient;
+    private TransactionalOperator transactionalOperator;
+    // starts used up, the first nextId reserves a block
+    private volatile IdBlock idBlock = new IdBlock(new AtomicLong(1), 0);
+
+    public ReactiveEmployeeRepository(R2dbcEntityTemplate entityTemplate, TransactionalOperator transactionalOperator) {
+        this.entityTemplate = entityTemplate;
+        this.databaseClient = entityTemplate.getDatabaseClient();
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    // ids come in blocks from id_generator, handed out from memory like Hibernate's pooled optimizer does and
+    // only going back to the table once a block is used up. For a stored next_id of S the block is
+    // (S - allocation size + 1, S + 1], never below 1, and S moves on by the allocation size: the same blocks
+    // Hibernate reserves, so the JPA and reactive stacks can share the table without handing out an id twice.
+    public Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            // read once: a block installed by another caller in between must not judge an id from this one
+            IdBlock block = idBlock;
+            long id = block.next().getAndIncrement();
+            if(id <= block.hi()) {
+                return Mono.just(id);
+            }
+            // callers that find the block used up at the same time each reserve one, the losers' ids stay unused
+            return reserveBlock().map(reserved -> {
+                idBlock = reserved;
+                return reserved.next().getAndIncrement();
+            });
+        });
+    }
+
+    private Mono<IdBlock> reserveBlock() {
+        Mono<Long> lastValue = databaseClient.sql("select next_id from id_generator where name = 'employees' for update")
+                .map(row -> row.get("next_id", Long.class))
+                .one()
+                .flatMap(value -> databaseClient.sql("update id_generator set next_id = next_id + :size where name = 'employees'")
+                        .bind("size", ID_ALLOCATION_SIZE)
+                        .then()
+                        .thenReturn(value))
+                .switchIfEmpty(databaseClient.sql("insert into id_generator (name, next_id) values ('employees', :size)")
+                        .bind("size", (long) ID_ALLOCATION_SIZE)
+                        .then()
+                        .thenReturn(0L));
+        return lastValue
+                .map(value -> new IdBlock(new AtomicLong(Math.max(value - ID_ALLOCATION_SIZE + 2, 1)), value + 1))
+                .as(transactionalOperator::transactional);
+    }
+
+    // always an INSERT, the id is assigned before the row is written
+    public Mono<Employee> insert(Employee employee) {
+        employee.setVersion(0L);
+        return entityTemplate.insert(employee);
+    }
+
+    // one transaction for the whole batch, like saveAll on the JPA side
+    public Flux<Employee> insertAll(List<Employee> employees) {
+        return Flux.fromIterable(employees)
+                .concatMap(employee -> nextId().flatMap(id -> {
+                    employee.setId(id);
+                    return insert(employee);
+                }))
+                .as(transactionalOperator::transactional);
+    }
+
+    // bumps the version the same way the JPA optimistic lock does, conditioned on expectedVersion unless
+    // it is null. Returns the number of updated rows.
+    public Mono<Long> update(long id, Employee employee, Long expectedVersion) {
+        DatabaseClient.GenericExecuteSpec update = databaseClient.sql("update employees set first_name = :firstName, "
+                        + "last_name = :lastName, email = :email, version = version + 1 "
+                        + "where id = :id and (:expectedVersion is null or version = :expectedVersion)")
+                .bind("id", id);
+        update = bindNullable(update, "firstName", employee.getFirstName(), String.class);
+        update = bindNullable(update, "lastName", employee.getLastName(), String.class);
+        update = bindNullable(update, "email", employee.getEmail(), String.class);
+        update = bindNullable(update, "expectedVersion", expectedVersion, Long.class);
+        return update.fetch().rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                                  Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    public Flux<Employee> findAll() {
+        return entityTemplate.select(Employee.class).all();
+    }
+
+    public Mono<Employee> findById(long id) {
+        return entityTemplate.selectOne(Query.query(where("id").is(id)), Employee.class);
+    }
+
+    public Mono<Employee> findByEmail(String email) {
+        return entityTemplate.selectOne(Query.query(where("email").is(email)), Employee.class);
+    }
+
+    // set-based duplicate check for batch inserts, one IN (...) query for the whole batch
+    public Flux<String> findExistingEmails(Collection<String> emails) {
+        return databaseClient.sql("select email from employees where email in (:emails)")
+                .bind("emails", emails)
+                .map(row -> row.get("email", String.class))
+                .all();
+    }
+
+    // keyset pagination: seek past the last seen id instead of using an offset
+    public Flux<Employee> findPageAfter(long id, int size) {
+        return entityTemplate.select(Query.query(where("id").greaterThan(id))
+                        .sort(by(asc("id")))
+                        .limit(size),
+                Employee.class);
+    }
+
+    // the number of deleted rows tells whether the employee existed
+    public Mono<Long> deleteById(long id) {
+        return entityTemplate.delete(Query.query(where("id").is(id)), Employee.class);
+    }
+
+    // next is the id to hand out, hi the last one of the block
+    private record IdBlock(AtomicLong next, long hi) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.dagli.springboottesting.service;
+
+import com.dagli.springboottesting.dto.EmployeeImportReport;
+
+import java.io.Reader;
+import java.util.Optional;
+
+public interface EmployeeImportService {
+
+    enum Format { CSV, NDJSON }
+
+    // returns when the whole input is read; progress is visible through getImport(importId) meanwhile.
+    // While another import with the same id is running, returns its report, still RUNNING, without reading.
+    EmployeeImportReport importEmployees(String importId, Format format, Reader reader);
+
+    Optional<EmployeeImportReport> getImport(String importId);
+}
@@ -1,16 +1,30 @@
 package com.dagli.springboottesting.service;
 
+import com.dagli.springboottesting.dto.EmployeeBatchResult;
+import com.dagli.springboottesting.dto.EmployeePage;
+import com.dagli.springboottesting.dto.EmployeeSummary;
 import com.dagli.springboottesting.entity.Employee;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
+    List<EmployeeBatchResult> saveEmployees(List<Employee> employees);
     List<Employee> getAllEmployees();
+    EmployeePage getEmployeesAfter(Long afterId, int size);
+    List<EmployeeSummary> getEmployeeSummaries();
+    List<EmployeeSummary> getEmployeeSummariesAfter(Long afterId, int size);
+    // hands every employee to the consumer in id order, in one read-only transaction
+    void exportEmployees(Consumer<Employee> consumer);
+    // ranked type-ahead matches on name and email prefixes, served from the in-memory search index;
+    // empty unless search is enabled (employee.search.enabled)
+    Optional<List<EmployeeSummary>> searchEmployees(String query, int limit);
 
     Optional<Employee> getEmployeeById(Long id);
-    Employee updateEmployee(Employee employee);
+    Optional<Long> getEmployeeVersion(Long id);
+    Optional<Employee> updateEmployee(Long id, Employee employee, Long expectedVersion);
 
-    void deleteEmployee(Long id);
+    boolean deleteEmployee(Long id);
 }
@@ -0,0 +1,100 @@
+package com.dagli.springboottesting.service.Impl;
+
+import com.dagli.springboottesting.dto.EmployeeBatchResult;
+import com.dagli.springboottesting.dto.EmployeeImportReport;
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.service.EmployeeImportService;
+import com.dagli.springboottesting.service.EmployeeService;
+import com.dagli.springboottesting.service.cache.BoundedCache;
+import com.dagli.springboottesting.service.imports.EmployeeRecordReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Profile("!reactive")
+public class EmployeeImportServiceImpl implements EmployeeImportService {
+
+    // rows per transaction, each chunk is one set based email check and a batched insert through saveEmployees
+    static final int CHUNK_SIZE = 1000;
+
+    private EmployeeService employeeService;
+    private ObjectMapper objectMapper;
+
+    // finished reports stay around for a day so clients can still fetch the outcome
+    private final BoundedCache<String, EmployeeImportReport> imports = new BoundedCache<>(1000, Duration.ofDays(1));
+
+    public EmployeeImportServiceImpl(EmployeeService employeeService, ObjectMapper objectMapper) {
+        this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public EmployeeImportReport importEmployees(String importId, Format format, Reader reader) {
+        EmployeeImportReport report = new EmployeeImportReport(importId);
+        // check and claim the id in one step, two uploads with the same id must not both get past the check
+        synchronized (imports) {
+            EmployeeImportReport current = imports.get(importId);
+            if(current != null && current.getStatus() == EmployeeImportReport.Status.RUNNING) {
+                return current;
+            }
+            imports.put(importId, report);
+        }
+
+        EmployeeRecordReader records = format == Format.CSV
+                ? EmployeeRecordReader.csv(reader)
+                : EmployeeRecordReader.ndjson(reader, objectMapper);
+        List<Employee> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Long> chunkLines = new ArrayList<>(CHUNK_SIZE);
+        try {
+            EmployeeRecordReader.Record record;
+            while ((record = records.next()) != null) {
+                report.rowRead();
+                if(record.getError() != null) {
+                    report.rejected(record.getLine(), record.getError());
+                    continue;
+                }
+                chunk.add(record.getEmployee());
+                chunkLines.add(record.getLine());
+                if(chunk.size() == CHUNK_SIZE) {
+                    saveChunk(chunk, chunkLines, report);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                    chunkLines = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            saveChunk(chunk, chunkLines, report);
+            report.completed();
+        } catch (IOException | RuntimeException e) {
+            // the chunks saved so far stay committed, the report tells how far the import got
+            report.failed(e.getMessage());
+        }
+        return report;
+    }
+
+    @Override
+    public Optional<EmployeeImportReport> getImport(String importId) {
+        return Optional.ofNullable(imports.get(importId));
+    }
+
+    private void saveChunk(List<Employee> chunk, List<Long> chunkLines, EmployeeImportReport report) {
+        if(chunk.isEmpty()) {
+            return;
+        }
+        long imported = 0;
+        for (EmployeeBatchResult result : employeeService.saveEmployees(chunk)) {
+            if(result.getError() == null) {
+                imported++;
+            } else {
+                report.rejected(chunkLines.get(result.getIndex()), result.getError());
+            }
+        }
+        report.imported(imported);
+    }
+}
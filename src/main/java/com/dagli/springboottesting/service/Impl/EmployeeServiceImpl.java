@@ -1,51 +1,257 @@
 package com.dagli.springboottesting.service.Impl;
 
+import com.dagli.springboottesting.datasource.ReadReplicaRoutingDataSource;
+import com.dagli.springboottesting.dto.EmployeeBatchResult;
+import com.dagli.springboottesting.dto.EmployeePage;
+import com.dagli.springboottesting.dto.EmployeeSummary;
 import com.dagli.springboottesting.entity.Employee;
 import com.dagli.springboottesting.exception.ResourceNotFoundException;
 import com.dagli.springboottesting.repository.EmployeeRepository;
 import com.dagli.springboottesting.service.EmployeeService;
+import com.dagli.springboottesting.service.cache.EmployeeCache;
+import com.dagli.springboottesting.service.search.EmployeeSearchIndex;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reactive")
+@Timed(value = "employee.service", histogram = true)
 public class EmployeeServiceImpl implements EmployeeService {
 
     private EmployeeRepository employeeRepository;
+    private EmployeeCache employeeCache;
+    private EmployeeSearchIndex employeeSearchIndex;
+    private EntityManager entityManager;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    // no search index unless employee.search.enabled, see EmployeeSearchConfig
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EmployeeCache employeeCache,
+                               Optional<EmployeeSearchIndex> employeeSearchIndex, EntityManager entityManager) {
         this.employeeRepository = employeeRepository;
+        this.employeeCache = employeeCache;
+        this.employeeSearchIndex = employeeSearchIndex.orElse(null);
+        this.entityManager = entityManager;
     }
 
     @Override
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-
-        if(savedEmployee.isPresent()) {
+        if(employeeCache.getByEmail(employee.getEmail()).isPresent()) {
             throw new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail());
         }
-        return employeeRepository.save(employee);
+
+        // a single INSERT, the unique index on email rejects duplicates atomically
+        long stamp = employeeCache.stamp();
+        Employee createdEmployee;
+        try {
+            createdEmployee = employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            if(isDuplicateEmail(e)) {
+                throw new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail(), e);
+            }
+            throw e;
+        }
+        employeeCache.put(createdEmployee, stamp);
+        updateSearchIndex(index -> index.put(createdEmployee));
+        return createdEmployee;
+    }
+
+    @Override
+    @Transactional
+    public List<EmployeeBatchResult> saveEmployees(List<Employee> employees) {
+        Set<String> emails = new HashSet<>();
+        for (Employee employee : employees) {
+            if(employee.getEmail() != null) {
+                emails.add(employee.getEmail());
+            }
+        }
+        Set<String> takenEmails = emails.isEmpty() ? new HashSet<>() : new HashSet<>(employeeRepository.findExistingEmails(emails));
+
+        EmployeeBatchResult[] results = new EmployeeBatchResult[employees.size()];
+        List<Employee> toSave = new ArrayList<>();
+        List<Integer> toSaveIndexes = new ArrayList<>();
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            if(employee.getEmail() == null) {
+                results[i] = EmployeeBatchResult.failed(i, "Employee email is required");
+            } else if(!takenEmails.add(employee.getEmail())) {
+                // either already in the table or repeated earlier in this batch
+                results[i] = EmployeeBatchResult.failed(i, "Employee already exist with given email:" + employee.getEmail());
+            } else {
+                toSave.add(employee);
+                toSaveIndexes.add(i);
+            }
+        }
+
+        List<Employee> savedEmployees = employeeRepository.saveAll(toSave);
+        updateSearchIndex(index -> savedEmployees.forEach(index::put));
+        for (int i = 0; i < savedEmployees.size(); i++) {
+            int index = toSaveIndexes.get(i);
+            results[index] = EmployeeBatchResult.created(index, savedEmployees.get(i).getId());
+        }
+        return List.of(results);
     }
 
+    // read-only transactions: Hibernate skips dirty checking snapshots and never flushes
     @Override
+    @Transactional(readOnly = true)
     public List<Employee> getAllEmployees() {
         return employeeRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeesAfter(Long afterId, int size) {
+        // fetch one extra row to find out whether there is a next page
+        List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0 : afterId, PageRequest.of(0, size + 1));
+
+        if(employees.size() <= size) {
+            return new EmployeePage(employees, null);
+        }
+        List<Employee> page = employees.subList(0, size);
+        return new EmployeePage(page, page.get(size - 1).getId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeSummary> getEmployeeSummaries() {
+        return employeeRepository.findAllSummaries();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeSummary> getEmployeeSummariesAfter(Long afterId, int size) {
+        return employeeRepository.findSummariesAfter(afterId == null ? 0 : afterId, PageRequest.of(0, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportEmployees(Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                // written out already, so keep the persistence context from growing with the table
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    @Override
+    public Optional<List<EmployeeSummary>> searchEmployees(String query, int limit) {
+        return Optional.ofNullable(employeeSearchIndex).map(index -> index.search(query, limit));
+    }
+
     @Override
     public Optional<Employee> getEmployeeById(Long id) {
-        return employeeRepository.findById(id);
+        Optional<Employee> cachedEmployee = employeeCache.get(id);
+        if(cachedEmployee.isPresent()) {
+            return cachedEmployee;
+        }
+
+        long stamp = employeeCache.stamp();
+        long replicaReads = ReadReplicaRoutingDataSource.replicaReads();
+        Optional<Employee> employee = employeeRepository.findById(id);
+        // a row from a lagging replica would be served to every client for the cache's time to live,
+        // so only rows read from the primary are cached
+        if(ReadReplicaRoutingDataSource.replicaReads() == replicaReads) {
+            employee.ifPresent(value -> employeeCache.put(value, stamp));
+        }
+        return employee;
     }
 
     @Override
-    public Employee updateEmployee(Employee employee) {
-        return employeeRepository.save(employee);
+    public Optional<Long> getEmployeeVersion(Long id) {
+        Optional<Employee> cachedEmployee = employeeCache.get(id);
+        if(cachedEmployee.isPresent()) {
+            return cachedEmployee.map(Employee::getVersion);
+        }
+        return employeeRepository.findVersionById(id);
     }
 
+    // one UPDATE statement; with an expected version it only applies if nobody updated the row in between.
+    // Without one the new version is read back in the same transaction, while the UPDATE still locks the row.
     @Override
-    public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+    @Transactional
+    public Optional<Employee> updateEmployee(Long id, Employee employee, Long expectedVersion) {
+        employeeCache.invalidate(id);
+        int updatedRows = expectedVersion == null
+                ? employeeRepository.updateEmployee(id, employee.getFirstName(), employee.getLastName(), employee.getEmail())
+                : employeeRepository.updateEmployeeIfVersion(id, employee.getFirstName(), employee.getLastName(),
+                        employee.getEmail(), expectedVersion);
+        // a read between the UPDATE and the commit may have cached the old row again
+        afterCommit(() -> employeeCache.invalidate(id));
+
+        if(updatedRows == 0) {
+            // only the failure path needs a second look to tell a stale version from a missing employee
+            if(expectedVersion != null && employeeRepository.findVersionById(id).isPresent()) {
+                throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+            }
+            return Optional.empty();
+        }
+        Employee updatedEmployee = Employee.builder()
+                .id(id)
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(expectedVersion == null ? employeeRepository.findVersionById(id).orElseThrow() : expectedVersion + 1)
+                .build();
+        updateSearchIndex(index -> index.put(updatedEmployee));
+        return Optional.of(updatedEmployee);
+    }
+
+    @Override
+    public boolean deleteEmployee(Long id) {
+        employeeCache.invalidate(id);
+        int deletedRows = employeeRepository.deleteEmployeeById(id);
+        employeeCache.invalidate(id);
+        if(deletedRows > 0) {
+            updateSearchIndex(index -> index.remove(id));
+        }
+        return deletedRows > 0;
+    }
+
+    // only the unique email index makes a failed insert a duplicate; any other constraint (a null or too long
+    // column, say) is not the client's duplicate email and goes up as it is. MySQL and H2 both name the
+    // index in the message.
+    static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(Employee.EMAIL_CONSTRAINT);
+    }
+
+    // the search index is not transactional, so only show it writes that actually committed
+    private void updateSearchIndex(Consumer<EmployeeSearchIndex> update) {
+        if(employeeSearchIndex != null) {
+            afterCommit(() -> update.accept(employeeSearchIndex));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
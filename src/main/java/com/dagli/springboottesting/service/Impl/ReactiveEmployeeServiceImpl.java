@@ -0,0 +1,145 @@
+package com.dagli.springboottesting.service.Impl;
+
+import com.dagli.springboottesting.dto.EmployeeBatchResult;
+import com.dagli.springboottesting.dto.EmployeePage;
+import com.dagli.springboottesting.dto.EmployeeSummary;
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.exception.ResourceNotFoundException;
+import com.dagli.springboottesting.repository.ReactiveEmployeeRepository;
+import com.dagli.springboottesting.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private ReactiveEmployeeRepository employeeRepository;
+
+    public ReactiveEmployeeServiceImpl(ReactiveEmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    @Override
+    public Mono<Employee> saveEmployee(Employee employee) {
+        return employeeRepository.nextId()
+                .flatMap(id -> {
+                    employee.setId(id);
+                    return employeeRepository.insert(employee);
+                })
+                .onErrorMap(e -> e instanceof DataIntegrityViolationException violation
+                                && EmployeeServiceImpl.isDuplicateEmail(violation),
+                        e -> new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail(), e));
+    }
+
+    // same per-item outcome as the JPA saveEmployees
+    @Override
+    public Mono<List<EmployeeBatchResult>> saveEmployees(List<Employee> employees) {
+        Set<String> emails = new HashSet<>();
+        for (Employee employee : employees) {
+            if(employee.getEmail() != null) {
+                emails.add(employee.getEmail());
+            }
+        }
+        Mono<Set<String>> existingEmails = emails.isEmpty()
+                ? Mono.just(new HashSet<>())
+                : employeeRepository.findExistingEmails(emails).collect(Collectors.toCollection(HashSet::new));
+
+        return existingEmails.flatMap(takenEmails -> {
+            EmployeeBatchResult[] results = new EmployeeBatchResult[employees.size()];
+            List<Employee> toSave = new ArrayList<>();
+            List<Integer> toSaveIndexes = new ArrayList<>();
+            for (int i = 0; i < employees.size(); i++) {
+                Employee employee = employees.get(i);
+                if(employee.getEmail() == null) {
+                    results[i] = EmployeeBatchResult.failed(i, "Employee email is required");
+                } else if(!takenEmails.add(employee.getEmail())) {
+                    // either already in the table or repeated earlier in this batch
+                    results[i] = EmployeeBatchResult.failed(i, "Employee already exist with given email:" + employee.getEmail());
+                } else {
+                    toSave.add(employee);
+                    toSaveIndexes.add(i);
+                }
+            }
+
+            // inserted in order, so the n-th saved employee is the n-th one of toSave
+            return employeeRepository.insertAll(toSave)
+                    .index()
+                    .doOnNext(saved -> {
+                        int index = toSaveIndexes.get(saved.getT1().intValue());
+                        results[index] = EmployeeBatchResult.created(index, saved.getT2().getId());
+                    })
+                    .then(Mono.fromSupplier(() -> List.of(results)));
+        });
+    }
+
+    @Override
+    public Flux<Employee> getAllEmployees() {
+        return employeeRepository.findAll();
+    }
+
+    @Override
+    public Mono<EmployeePage> getEmployeesAfter(Long afterId, int size) {
+        // fetch one extra row to find out whether there is a next page
+        return employeeRepository.findPageAfter(afterId == null ? 0 : afterId, size + 1)
+                .collectList()
+                .map(employees -> {
+                    if(employees.size() <= size) {
+                        return new EmployeePage(employees, null);
+                    }
+                    List<Employee> page = employees.subList(0, size);
+                    return new EmployeePage(page, page.get(size - 1).getId());
+                });
+    }
+
+    @Override
+    public Flux<EmployeeSummary> getEmployeeSummaries() {
+        return employeeRepository.findAll().map(ReactiveEmployeeServiceImpl::summaryOf);
+    }
+
+    @Override
+    public Flux<EmployeeSummary> getEmployeeSummariesAfter(Long afterId, int size) {
+        return employeeRepository.findPageAfter(afterId == null ? 0 : afterId, size)
+                .map(ReactiveEmployeeServiceImpl::summaryOf);
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById(Long id) {
+        return employeeRepository.findById(id);
+    }
+
+    @Override
+    public Mono<Employee> updateEmployee(Long id, Employee employee, Long expectedVersion) {
+        return employeeRepository.update(id, employee, expectedVersion)
+                .flatMap(updatedRows -> {
+                    if(updatedRows > 0) {
+                        return employeeRepository.findById(id);
+                    }
+                    if(expectedVersion == null) {
+                        return Mono.empty();
+                    }
+                    // only the failure path needs a second look to tell a stale version from a missing employee
+                    return employeeRepository.findById(id)
+                            .flatMap(current -> Mono.<Employee>error(new ObjectOptimisticLockingFailureException(Employee.class, id)));
+                });
+    }
+
+    @Override
+    public Mono<Boolean> deleteEmployee(Long id) {
+        return employeeRepository.deleteById(id).map(deletedRows -> deletedRows > 0);
+    }
+
+    private static EmployeeSummary summaryOf(Employee employee) {
+        return new EmployeeSummary(employee.getId(), employee.getFirstName(), employee.getLastName(), employee.getEmail());
+    }
+}
@@ -0,0 +1,199 @@
+package com.dagli.springboottesting.service.Impl;
+
+import com.dagli.springboottesting.dto.EmployeeBatchResult;
+import com.dagli.springboottesting.dto.EmployeePage;
+import com.dagli.springboottesting.dto.EmployeeSummary;
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.exception.ResourceNotFoundException;
+import com.dagli.springboottesting.repository.EmployeeRepository;
+import com.dagli.springboottesting.service.EmployeeService;
+import com.dagli.springboottesting.service.cache.EmployeeCache;
+import com.dagli.springboottesting.service.search.EmployeeSearchIndex;
+import com.dagli.springboottesting.service.writebehind.EmployeeWrite;
+import com.dagli.springboottesting.service.writebehind.EmployeeWriteFlusher;
+import com.dagli.springboottesting.service.writebehind.EmployeeWriteLog;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+// write-behind EmployeeService: saveEmployee and updateEmployee are acknowledged as soon as they are
+// in the local write log, EmployeeWriteFlusher writes them to the database in batches later on.
+// Until then they are pinned in the cache (see EmployeeCache#putPending) and in the search index, the only
+// places they can be read from; every other call goes straight to the regular service.
+public class WriteBehindEmployeeServiceImpl implements EmployeeService {
+
+    private EmployeeService employeeService;
+    private EmployeeRepository employeeRepository;
+    private EmployeeCache employeeCache;
+    private EmployeeSearchIndex employeeSearchIndex;
+    private EmployeeWriteLog writeLog;
+    private EmployeeWriteFlusher writeFlusher;
+    private LongSupplier idGenerator;
+
+    // employeeSearchIndex is null unless employee.search.enabled, see EmployeeSearchConfig
+    public WriteBehindEmployeeServiceImpl(EmployeeService employeeService, EmployeeRepository employeeRepository,
+                                          EmployeeCache employeeCache, EmployeeSearchIndex employeeSearchIndex,
+                                          EmployeeWriteLog writeLog, EmployeeWriteFlusher writeFlusher,
+                                          LongSupplier idGenerator) {
+        this.employeeService = employeeService;
+        this.employeeRepository = employeeRepository;
+        this.employeeCache = employeeCache;
+        this.employeeSearchIndex = employeeSearchIndex;
+        this.writeLog = writeLog;
+        this.writeFlusher = writeFlusher;
+        this.idGenerator = idGenerator;
+    }
+
+    // the email is checked against the pending writes in the cache and then against the table, with one
+    // lookup on the unique email index; only a save racing with another one for the same email in the
+    // database gets past both, and the flusher drops it. Employees without an email are saved, as they are
+    // by the regular service.
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        if(employee.getEmail() != null && (employeeCache.getByEmail(employee.getEmail()).isPresent()
+                || employeeRepository.existsByEmail(employee.getEmail()))) {
+            throw new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail());
+        }
+
+        Employee createdEmployee = Employee.builder()
+                .id(idGenerator.getAsLong())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(0L)
+                .build();
+        // pinned before the append, the flusher may release it as soon as it is in the log
+        if(!employeeCache.putPending(createdEmployee)) {
+            throw new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail());
+        }
+        append(EmployeeWrite.insert(createdEmployee));
+        updateSearchIndex(index -> index.put(createdEmployee));
+        return createdEmployee;
+    }
+
+    // 404 and 412 are still answered up front from the current version; the version check is repeated
+    // by the flusher, so an update that loses a race there is dropped.
+    // The new version goes into the log with the write and the flusher sets the row to it, so versions of
+    // the same employee are handed out one at a time and appended in that order.
+    @Override
+    public Optional<Employee> updateEmployee(Long id, Employee employee, Long expectedVersion) {
+        while (true) {
+            Optional<Employee> currentEmployee = employeeService.getEmployeeById(id);
+            if(currentEmployee.isEmpty()) {
+                return Optional.empty();
+            }
+            long currentVersion = currentEmployee.get().getVersion();
+            if(expectedVersion != null && expectedVersion != currentVersion) {
+                throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+            }
+
+            Employee updatedEmployee = Employee.builder()
+                    .id(id)
+                    .firstName(employee.getFirstName())
+                    .lastName(employee.getLastName())
+                    .email(employee.getEmail())
+                    .version(currentVersion + 1)
+                    .build();
+            synchronized (this) {
+                if(employeeCache.pendingVersion(id).filter(version -> version != currentVersion).isPresent()) {
+                    // another update was acknowledged since the current version was read
+                    continue;
+                }
+                if(!employeeCache.putPending(updatedEmployee)) {
+                    throw new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail());
+                }
+                append(EmployeeWrite.update(id, employee, expectedVersion, updatedEmployee.getVersion()));
+            }
+            updateSearchIndex(index -> index.put(updatedEmployee));
+            return Optional.of(updatedEmployee);
+        }
+    }
+
+    // a delete must not be overtaken by an insert or update of the same employee still in the log
+    @Override
+    public boolean deleteEmployee(Long id) {
+        writeFlusher.flush();
+        return employeeService.deleteEmployee(id);
+    }
+
+    public void written(EmployeeWrite write) {
+        employeeCache.release(write.id());
+    }
+
+    // undoes what the cache and the search index were told when the write was acknowledged
+    public void rejected(EmployeeWrite write) {
+        employeeCache.release(write.id());
+        employeeCache.invalidate(write.id());
+        if(write.type() == EmployeeWrite.Type.INSERT) {
+            updateSearchIndex(index -> index.remove(write.id()));
+        } else {
+            updateSearchIndex(index -> employeeRepository.findById(write.id()).ifPresentOrElse(index::put,
+                    () -> index.remove(write.id())));
+        }
+    }
+
+    private void append(EmployeeWrite write) {
+        try {
+            writeLog.append(write);
+        } catch (RuntimeException e) {
+            // never acknowledged, so never flushed either
+            employeeCache.release(write.id());
+            throw e;
+        }
+    }
+
+    // the search index is optional (employee.search.enabled)
+    private void updateSearchIndex(Consumer<EmployeeSearchIndex> update) {
+        if(employeeSearchIndex != null) {
+            update.accept(employeeSearchIndex);
+        }
+    }
+
+    @Override
+    public List<EmployeeBatchResult> saveEmployees(List<Employee> employees) {
+        return employeeService.saveEmployees(employees);
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @Override
+    public EmployeePage getEmployeesAfter(Long afterId, int size) {
+        return employeeService.getEmployeesAfter(afterId, size);
+    }
+
+    @Override
+    public List<EmployeeSummary> getEmployeeSummaries() {
+        return employeeService.getEmployeeSummaries();
+    }
+
+    @Override
+    public List<EmployeeSummary> getEmployeeSummariesAfter(Long afterId, int size) {
+        return employeeService.getEmployeeSummariesAfter(afterId, size);
+    }
+
+    @Override
+    public void exportEmployees(Consumer<Employee> consumer) {
+        employeeService.exportEmployees(consumer);
+    }
+
+    @Override
+    public Optional<List<EmployeeSummary>> searchEmployees(String query, int limit) {
+        return employeeService.searchEmployees(query, limit);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(Long id) {
+        return employeeService.getEmployeeById(id);
+    }
+
+    @Override
+    public Optional<Long> getEmployeeVersion(Long id) {
+        return employeeService.getEmployeeVersion(id);
+    }
+}
@@ -0,0 +1,27 @@
+package com.dagli.springboottesting.service;
+
+import com.dagli.springboottesting.dto.EmployeeBatchResult;
+import com.dagli.springboottesting.dto.EmployeePage;
+import com.dagli.springboottesting.dto.EmployeeSummary;
+import com.dagli.springboottesting.entity.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ReactiveEmployeeService {
+    Mono<Employee> saveEmployee(Employee employee);
+    Mono<List<EmployeeBatchResult>> saveEmployees(List<Employee> employees);
+    Flux<Employee> getAllEmployees();
+    Mono<EmployeePage> getEmployeesAfter(Long afterId, int size);
+    Flux<EmployeeSummary> getEmployeeSummaries();
+    Flux<EmployeeSummary> getEmployeeSummariesAfter(Long afterId, int size);
+
+    Mono<Employee> getEmployeeById(Long id);
+    // empty when there is no such employee, fails with an OptimisticLockingFailureException when
+    // expectedVersion is not null and no longer the current version
+    Mono<Employee> updateEmployee(Long id, Employee employee, Long expectedVersion);
+
+    // false when there was no such employee
+    Mono<Boolean> deleteEmployee(Long id);
+}
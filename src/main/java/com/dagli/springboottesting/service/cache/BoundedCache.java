@@ -0,0 +1,111 @@
+package com.dagli.springboottesting.service.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+// size bounded LRU cache with a time to live per entry, counts hits, misses and evictions
+public class BoundedCache<K, V> {
+
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoClock;
+    private final BiConsumer<K, V> evictionListener;
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(int maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, System::nanoTime, (key, value) -> { });
+    }
+
+    public BoundedCache(int maximumSize, Duration timeToLive, LongSupplier nanoClock, BiConsumer<K, V> evictionListener) {
+        if(maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoClock = nanoClock;
+        this.evictionListener = evictionListener;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if(entry == null) {
+            misses.increment();
+            return null;
+        }
+        if(entry.isExpired(nanoClock.getAsLong())) {
+            entries.remove(key);
+            evict(key, entry.value);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        Entry<V> previous = entries.put(key, new Entry<>(value, nanoClock.getAsLong() + timeToLiveNanos));
+        if(previous == null && entries.size() > maximumSize) {
+            Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+            Map.Entry<K, Entry<V>> entry = eldest.next();
+            eldest.remove();
+            evict(entry.getKey(), entry.getValue().value);
+        }
+    }
+
+    // atomically adds the value unless the key holds one that has not expired yet, which is returned instead
+    public synchronized V putIfAbsent(K key, V value) {
+        V current = get(key);
+        if(current == null) {
+            put(key, value);
+        }
+        return current;
+    }
+
+    public synchronized V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        return entry == null ? null : entry.value;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private void evict(K key, V value) {
+        evictions.increment();
+        evictionListener.accept(key, value);
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
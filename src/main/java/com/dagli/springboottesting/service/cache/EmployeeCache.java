@@ -0,0 +1,192 @@
+package com.dagli.springboottesting.service.cache;
+
+import com.dagli.springboottesting.entity.Employee;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// read-through cache of employees by id, with a secondary email -> id index.
+// Entries are copied on the way in and out so callers can never mutate a cached instance.
+// Pending entries are writes acknowledged in write-behind mode but not flushed yet: the database does not
+// have them, so they are kept apart from the bounded entries and never expire or get evicted until released.
+@Component
+public class EmployeeCache {
+
+    private final BoundedCache<Long, Employee> employeesById;
+    private final Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+    private final Map<Long, Pending> pendingById = new ConcurrentHashMap<>();
+    private final Map<String, Long> pendingIdsByEmail = new ConcurrentHashMap<>();
+
+    // bumped by every invalidation; a load that started before an invalidation must not be cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public EmployeeCache(@Value("${employee.cache.maximum-size:10000}") int maximumSize,
+                         @Value("${employee.cache.time-to-live:10m}") Duration timeToLive) {
+        this.employeesById = new BoundedCache<>(maximumSize, timeToLive, System::nanoTime, (id, employee) -> {
+            if(employee.getEmail() != null) {
+                idsByEmail.remove(employee.getEmail(), id);
+            }
+        });
+    }
+
+    public Optional<Employee> get(long id) {
+        Pending pending = pendingById.get(id);
+        if(pending != null) {
+            return Optional.of(copyOf(pending.employee()));
+        }
+        return Optional.ofNullable(employeesById.get(id)).map(EmployeeCache::copyOf);
+    }
+
+    public Optional<Employee> getByEmail(String email) {
+        if(email == null) {
+            return Optional.empty();
+        }
+        Long id = pendingIdsByEmail.getOrDefault(email, idsByEmail.get(email));
+        if(id == null) {
+            return Optional.empty();
+        }
+        return get(id).filter(employee -> email.equals(employee.getEmail()));
+    }
+
+    // take a stamp before reading from the database and hand it back to put
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    public void put(Employee employee, long stamp) {
+        synchronized (this) {
+            if(invalidations.get() != stamp) {
+                return;
+            }
+            Employee copy = copyOf(employee);
+            employeesById.put(copy.getId(), copy);
+            if(copy.getEmail() != null) {
+                idsByEmail.put(copy.getEmail(), copy.getId());
+            }
+        }
+    }
+
+    // pins an acknowledged write until release is called once for every putPending of the same id.
+    // Returns false, and pins nothing, when another pending employee already has the email.
+    public boolean putPending(Employee employee) {
+        synchronized (this) {
+            Employee copy = copyOf(employee);
+            Long emailOwner = copy.getEmail() == null ? null : pendingIdsByEmail.get(copy.getEmail());
+            if(emailOwner != null && !emailOwner.equals(copy.getId())) {
+                return false;
+            }
+            Pending previous = pendingById.get(copy.getId());
+            if(previous != null && previous.employee().getEmail() != null) {
+                pendingIdsByEmail.remove(previous.employee().getEmail(), copy.getId());
+            }
+            pendingById.put(copy.getId(), new Pending(copy, previous == null ? 1 : previous.writes() + 1));
+            if(copy.getEmail() != null) {
+                pendingIdsByEmail.put(copy.getEmail(), copy.getId());
+            }
+            // the bounded entry is older than the pending one
+            evict(copy.getId());
+            return true;
+        }
+    }
+
+    // the version of the latest pending write of the employee
+    public Optional<Long> pendingVersion(long id) {
+        return Optional.ofNullable(pendingById.get(id)).map(pending -> pending.employee().getVersion());
+    }
+
+    // one pending write of the employee reached the database or was dropped; after the last one
+    // reads go to the database again
+    public void release(long id) {
+        synchronized (this) {
+            Pending pending = pendingById.get(id);
+            if(pending == null) {
+                // replayed from the log of an earlier process
+                return;
+            }
+            if(pending.writes() > 1) {
+                pendingById.put(id, new Pending(pending.employee(), pending.writes() - 1));
+                return;
+            }
+            pendingById.remove(id);
+            if(pending.employee().getEmail() != null) {
+                pendingIdsByEmail.remove(pending.employee().getEmail(), id);
+            }
+            // a read that loaded the row before the flush must not be cached now
+            evict(id);
+        }
+    }
+
+    // evicts now and again once the surrounding transaction (if any) has completed,
+    // so a reader racing with the write cannot re-populate the old row
+    public void invalidate(long id) {
+        evict(id);
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(id);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        synchronized (this) {
+            invalidations.incrementAndGet();
+            employeesById.clear();
+            idsByEmail.clear();
+            pendingById.clear();
+            pendingIdsByEmail.clear();
+        }
+    }
+
+    public int size() {
+        return employeesById.size();
+    }
+
+    public int pendingSize() {
+        return pendingById.size();
+    }
+
+    public long hitCount() {
+        return employeesById.hitCount();
+    }
+
+    public long missCount() {
+        return employeesById.missCount();
+    }
+
+    public long evictionCount() {
+        return employeesById.evictionCount();
+    }
+
+    private void evict(long id) {
+        synchronized (this) {
+            invalidations.incrementAndGet();
+            Employee employee = employeesById.remove(id);
+            if(employee != null && employee.getEmail() != null) {
+                idsByEmail.remove(employee.getEmail(), id);
+            }
+        }
+    }
+
+    private static Employee copyOf(Employee employee) {
+        return Employee.builder()
+                .id(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(employee.getVersion())
+                .build();
+    }
+
+    private record Pending(Employee employee, int writes) {
+    }
+}
@@ -0,0 +1,243 @@
+package com.dagli.springboottesting.service.imports;
+
+import com.dagli.springboottesting.entity.Employee;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// reads employees one record at a time, so an upload is never held in memory as a whole. A record is a line,
+// or for CSV several lines when a quoted field has line breaks, as in the export. Records longer than
+// MAX_RECORD_LENGTH are skipped without being buffered and reported as a rejected row.
+public abstract class EmployeeRecordReader {
+
+    public static final int MAX_RECORD_LENGTH = 16 * 1024;
+
+    private final Reader reader;
+    private final boolean quotedLineBreaks;
+    private final char[] buffer = new char[64 * 1024];
+    private final StringBuilder text = new StringBuilder();
+    private int position;
+    private int limit;
+    private long line;
+
+    protected EmployeeRecordReader(Reader reader, boolean quotedLineBreaks) {
+        this.reader = reader;
+        this.quotedLineBreaks = quotedLineBreaks;
+    }
+
+    // csv with an optional firstName,lastName,email header (any column order), one record per line
+    public static EmployeeRecordReader csv(Reader reader) {
+        return new Csv(reader);
+    }
+
+    // one JSON employee object per line
+    public static EmployeeRecordReader ndjson(Reader reader, ObjectMapper objectMapper) {
+        return new Ndjson(reader, objectMapper.readerFor(Employee.class));
+    }
+
+    // next record, or null at the end of the input. Blank lines are skipped.
+    public Record next() throws IOException {
+        while (true) {
+            long start = line + 1;
+            int length = readRecord();
+            if(length < 0) {
+                return null;
+            }
+            if(length > MAX_RECORD_LENGTH) {
+                return new Record(start, null, "Record longer than " + MAX_RECORD_LENGTH + " characters");
+            }
+            String record = text.toString();
+            if(!record.isBlank()) {
+                Record parsed = parse(start, record);
+                if(parsed != null) {
+                    return parsed;
+                }
+            }
+        }
+    }
+
+    // reads up to the next line break outside quotes into text, keeping at most MAX_RECORD_LENGTH characters.
+    // Returns the length of the whole record, or -1 at the end of the input.
+    private int readRecord() throws IOException {
+        text.setLength(0);
+        if(position == limit && !fill()) {
+            return -1;
+        }
+        line++;
+        int length = 0;
+        char previous = 0;
+        boolean quoted = false;
+        while (position < limit || fill()) {
+            char c = buffer[position++];
+            if(c == '\n' && !quoted) {
+                // \r\n line breaks
+                if(previous == '\r') {
+                    length--;
+                    if(length < MAX_RECORD_LENGTH) {
+                        text.setLength(length);
+                    }
+                }
+                return length;
+            }
+            if(c == '\n') {
+                line++;
+            } else if(c == '"' && quotedLineBreaks) {
+                // "" inside a quoted field flips twice
+                quoted = !quoted;
+            }
+            if(length++ < MAX_RECORD_LENGTH) {
+                text.append(c);
+            }
+            previous = c;
+        }
+        return length;
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    // null skips the line, e.g. a header
+    protected abstract Record parse(long line, String text);
+
+    // only the fields an import may set, ids and versions are assigned by the database
+    protected static Record record(long line, String firstName, String lastName, String email) {
+        String error = null;
+        if(isBlank(firstName) || isBlank(lastName)) {
+            error = "Employee first name and last name are required";
+        } else if(isBlank(email) || email.indexOf('@') < 1) {
+            error = "Employee email is not valid: " + email;
+        }
+        if(error != null) {
+            return new Record(line, null, error);
+        }
+        return new Record(line, Employee.builder()
+                .firstName(firstName.trim())
+                .lastName(lastName.trim())
+                .email(email.trim())
+                .build(), null);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Record {
+
+        private long line;
+        private Employee employee;
+        private String error;
+    }
+
+    private static final class Csv extends EmployeeRecordReader {
+
+        private int firstNameColumn = 0;
+        private int lastNameColumn = 1;
+        private int emailColumn = 2;
+        private boolean firstLine = true;
+
+        private Csv(Reader reader) {
+            super(reader, true);
+        }
+
+        @Override
+        protected Record parse(long line, String text) {
+            List<String> fields = split(text);
+            if(firstLine) {
+                firstLine = false;
+                List<String> header = header(fields);
+                if(header != null) {
+                    firstNameColumn = header.indexOf("firstname");
+                    lastNameColumn = header.indexOf("lastname");
+                    emailColumn = header.indexOf("email");
+                    return null;
+                }
+            }
+            if(fields == null) {
+                return new Record(line, null, "Malformed CSV line, unterminated quote");
+            }
+            return record(line, field(fields, firstNameColumn), field(fields, lastNameColumn), field(fields, emailColumn));
+        }
+
+        // the column names in lower case when the line is a header, null otherwise
+        private static List<String> header(List<String> fields) {
+            if(fields == null) {
+                return null;
+            }
+            List<String> columns = new ArrayList<>(fields.size());
+            for (String field : fields) {
+                columns.add(field.trim().toLowerCase(Locale.ROOT));
+            }
+            return columns.contains("firstname") && columns.contains("lastname") && columns.contains("email") ? columns : null;
+        }
+
+        private static String field(List<String> fields, int column) {
+            return column < fields.size() ? fields.get(column) : null;
+        }
+
+        // RFC 4180 fields, quoted with "" as escape
+        private static List<String> split(String text) {
+            List<String> fields = new ArrayList<>(3);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if(quoted) {
+                    if(c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if(c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if(c == '"') {
+                    quoted = true;
+                } else if(c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if(quoted) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static final class Ndjson extends EmployeeRecordReader {
+
+        private final ObjectReader objectReader;
+
+        private Ndjson(Reader reader, ObjectReader objectReader) {
+            super(reader, false);
+            this.objectReader = objectReader;
+        }
+
+        @Override
+        protected Record parse(long line, String text) {
+            try {
+                Employee employee = objectReader.readValue(text);
+                return record(line, employee.getFirstName(), employee.getLastName(), employee.getEmail());
+            } catch (JsonProcessingException e) {
+                return new Record(line, null, "Malformed JSON line: " + e.getOriginalMessage());
+            }
+        }
+    }
+}
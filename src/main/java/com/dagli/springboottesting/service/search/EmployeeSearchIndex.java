@@ -0,0 +1,379 @@
+package com.dagli.springboottesting.service.search;
+
+import com.dagli.springboottesting.dto.EmployeeSummary;
+import com.dagli.springboottesting.entity.Employee;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// in-memory inverted index over first name, last name and email for type-ahead search.
+// Every field keeps a sorted term -> postings dictionary, so a prefix lookup is a range scan.
+// A query walks the postings of its most selective token only and stops after a bounded number
+// of matching candidates per field, however large the table grows. Only there with employee.search.enabled.
+public class EmployeeSearchIndex {
+
+    enum Field {
+        FIRST_NAME(3),
+        LAST_NAME(3),
+        EMAIL(1);
+
+        private final int weight;
+
+        Field(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+
+    private final int maxCandidates;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Field, NavigableMap<String, Postings>> dictionaries = new EnumMap<>(Field.class);
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private Document[] documents = new Document[1024];
+    private int nextSlot;
+
+    // ids written through put/remove while a load is running, the load must not overwrite them with its older snapshot
+    private Set<Long> writtenDuringLoad;
+
+    public EmployeeSearchIndex(int maxCandidates) {
+        if(maxCandidates < 1) {
+            throw new IllegalArgumentException("maxCandidates must be positive: " + maxCandidates);
+        }
+        this.maxCandidates = maxCandidates;
+        for (Field field : FIELDS) {
+            dictionaries.put(field, new TreeMap<>());
+        }
+    }
+
+    public void put(Employee employee) {
+        lock.writeLock().lock();
+        try {
+            if(writtenDuringLoad != null) {
+                writtenDuringLoad.add(employee.getId());
+            }
+            index(employee);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            if(writtenDuringLoad != null) {
+                writtenDuringLoad.add(id);
+            }
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // (re)builds the index from a full scan: beginLoad, load every employee, endLoad
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            clearIndex();
+            writtenDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void load(Employee employee) {
+        lock.writeLock().lock();
+        try {
+            if(writtenDuringLoad == null || !writtenDuringLoad.contains(employee.getId())) {
+                index(employee);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endLoad() {
+        lock.writeLock().lock();
+        try {
+            writtenDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // every whitespace separated query token has to prefix-match a term of some field.
+    // Exact term matches rank above prefixes, names above email, shorter completions above longer ones
+    public List<EmployeeSummary> search(String query, int limit) {
+        String[] tokens = queryTokens(query);
+        if(tokens.length == 0 || limit < 1) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            // the token with the fewest postings picks the candidates, the others only filter and score them
+            String driver = tokens.length == 1 ? tokens[0] : mostSelectiveToken(tokens);
+            PriorityQueue<Hit> hits = new PriorityQueue<>(limit + 1, RANKING);
+            Set<Integer> candidates = new HashSet<>();
+            for (Field field : FIELDS) {
+                NavigableMap<String, Postings> dictionary = dictionaries.get(field);
+                // the exact term first, lexicographic order would put "ann1" and "anna" ahead of "ann@"
+                int fieldCandidates = collect(dictionary.get(driver), 0, candidates, tokens, hits, limit);
+                for (Postings postings : dictionary.subMap(driver, false, driver + Character.MAX_VALUE, false).values()) {
+                    if(fieldCandidates == maxCandidates) {
+                        break;
+                    }
+                    fieldCandidates = collect(postings, fieldCandidates, candidates, tokens, hits, limit);
+                }
+            }
+
+            List<EmployeeSummary> employees = new ArrayList<>(hits.size());
+            while (!hits.isEmpty()) {
+                employees.add(hits.poll().employee());
+            }
+            // the heap hands out the lowest ranked hit first
+            Collections.reverse(employees);
+            return employees;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            clearIndex();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // only candidates matching every token count against maxCandidates, a common token next to a rare one
+    // must not use up the budget on documents the rare one rules out
+    private int collect(Postings postings, int fieldCandidates, Set<Integer> candidates, String[] tokens,
+                        PriorityQueue<Hit> hits, int limit) {
+        if(postings == null) {
+            return fieldCandidates;
+        }
+        for (int i = 0; i < postings.size && fieldCandidates < maxCandidates; i++) {
+            int slot = postings.slots[i];
+            if(candidates.add(slot) && score(documents[slot], tokens, hits, limit)) {
+                fieldCandidates++;
+            }
+        }
+        return fieldCandidates;
+    }
+
+    // longest tokens first, they are usually the most selective and bound the counting of the others early
+    private String mostSelectiveToken(String[] tokens) {
+        String[] byLength = tokens.clone();
+        Arrays.sort(byLength, Comparator.comparingInt(String::length).reversed());
+        String driver = byLength[0];
+        long fewest = Long.MAX_VALUE;
+        for (String token : byLength) {
+            long postings = countPostings(token, fewest);
+            if(postings < fewest) {
+                fewest = postings;
+                driver = token;
+            }
+        }
+        return driver;
+    }
+
+    // postings of every term the token is a prefix of, counting stops once it reaches bound
+    private long countPostings(String token, long bound) {
+        long count = 0;
+        for (Field field : FIELDS) {
+            NavigableMap<String, Postings> dictionary = dictionaries.get(field);
+            Postings exact = dictionary.get(token);
+            if(exact != null) {
+                count += exact.size;
+            }
+            for (Postings postings : dictionary.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                if(count >= bound) {
+                    return count;
+                }
+                count += postings.size;
+            }
+        }
+        return count;
+    }
+
+    // false if some token matches no term of the document
+    private static boolean score(Document document, String[] tokens, PriorityQueue<Hit> hits, int limit) {
+        double score = 0;
+        for (String token : tokens) {
+            double best = 0;
+            for (Field field : FIELDS) {
+                for (String term : document.terms[field.ordinal()]) {
+                    if(term.startsWith(token)) {
+                        // 2 * weight for an exact term, between 1 and 2 * weight for a prefix of it
+                        best = Math.max(best, field.weight * (1 + (double) token.length() / term.length()));
+                    }
+                }
+            }
+            if(best == 0) {
+                return false;
+            }
+            score += best;
+        }
+
+        Hit hit = new Hit(document.employee, score);
+        if(hits.size() < limit) {
+            hits.add(hit);
+        } else if(RANKING.compare(hit, hits.peek()) > 0) {
+            hits.poll();
+            hits.add(hit);
+        }
+        return true;
+    }
+
+    private void index(Employee employee) {
+        unindex(employee.getId());
+
+        String[][] terms = new String[FIELDS.length][];
+        terms[Field.FIRST_NAME.ordinal()] = terms(employee.getFirstName());
+        terms[Field.LAST_NAME.ordinal()] = terms(employee.getLastName());
+        terms[Field.EMAIL.ordinal()] = terms(localPart(employee.getEmail()), employee.getEmail());
+
+        int slot = freeSlots.isEmpty() ? nextSlot++ : freeSlots.pop();
+        if(slot == documents.length) {
+            documents = Arrays.copyOf(documents, documents.length * 2);
+        }
+        documents[slot] = new Document(new EmployeeSummary(employee.getId(), employee.getFirstName(),
+                employee.getLastName(), employee.getEmail()), terms);
+        slotsById.put(employee.getId(), slot);
+
+        for (Field field : FIELDS) {
+            NavigableMap<String, Postings> dictionary = dictionaries.get(field);
+            for (String term : terms[field.ordinal()]) {
+                dictionary.computeIfAbsent(term, key -> new Postings()).add(slot);
+            }
+        }
+    }
+
+    private void unindex(long id) {
+        Integer slot = slotsById.remove(id);
+        if(slot == null) {
+            return;
+        }
+        Document document = documents[slot];
+        for (Field field : FIELDS) {
+            NavigableMap<String, Postings> dictionary = dictionaries.get(field);
+            for (String term : document.terms[field.ordinal()]) {
+                Postings postings = dictionary.get(term);
+                postings.remove(slot);
+                if(postings.size == 0) {
+                    dictionary.remove(term);
+                }
+            }
+        }
+        documents[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    private void clearIndex() {
+        dictionaries.values().forEach(Map::clear);
+        slotsById.clear();
+        freeSlots.clear();
+        Arrays.fill(documents, null);
+        nextSlot = 0;
+    }
+
+    // the whole value, so "o'brien" or a full email can be typed as is, plus its letter/digit runs
+    private static String[] terms(String value) {
+        return terms(value, value);
+    }
+
+    private static String[] terms(String segmented, String whole) {
+        Set<String> terms = new LinkedHashSet<>();
+        if(whole != null && !whole.isBlank()) {
+            terms.add(whole.strip().toLowerCase(Locale.ROOT));
+        }
+        if(segmented != null) {
+            for (String segment : segmented.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if(!segment.isEmpty()) {
+                    terms.add(segment);
+                }
+            }
+        }
+        return terms.toArray(String[]::new);
+    }
+
+    // the domain is shared by most employees, indexing it would give every search a huge postings list
+    private static String localPart(String email) {
+        if(email == null) {
+            return null;
+        }
+        int at = email.indexOf('@');
+        return at < 0 ? email : email.substring(0, at);
+    }
+
+    private static String[] queryTokens(String query) {
+        if(query == null || query.isBlank()) {
+            return new String[0];
+        }
+        return query.strip().toLowerCase(Locale.ROOT).split("\\s+");
+    }
+
+    private record Document(EmployeeSummary employee, String[][] terms) {
+    }
+
+    private record Hit(EmployeeSummary employee, double score) {
+        long id() {
+            return employee.getId();
+        }
+    }
+
+    // unordered slots of the documents containing a term
+    private static final class Postings {
+
+        private int[] slots = new int[2];
+        private int size;
+
+        void add(int slot) {
+            if(size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if(slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.dagli.springboottesting.service.search;
+
+import com.dagli.springboottesting.service.EmployeeService;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+
+// fills the search index from one streaming pass over the table once the application is up;
+// from then on the service keeps it current on every write
+@Slf4j
+public class EmployeeSearchIndexLoader {
+
+    private EmployeeService employeeService;
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    public EmployeeSearchIndexLoader(EmployeeService employeeService, EmployeeSearchIndex employeeSearchIndex) {
+        this.employeeService = employeeService;
+        this.employeeSearchIndex = employeeSearchIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        employeeSearchIndex.beginLoad();
+        try {
+            employeeService.exportEmployees(employeeSearchIndex::load);
+        } catch (DataAccessException | PersistenceException e) {
+            // search is not worth failing startup over, it keeps serving whatever gets written from now on
+            log.warn("Could not load the employee search index", e);
+            return;
+        } finally {
+            employeeSearchIndex.endLoad();
+        }
+        log.info("Indexed {} employees for search in {} ms", employeeSearchIndex.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
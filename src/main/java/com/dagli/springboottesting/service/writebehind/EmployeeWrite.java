@@ -0,0 +1,76 @@
+package com.dagli.springboottesting.service.writebehind;
+
+import com.dagli.springboottesting.entity.Employee;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// one acknowledged write waiting in the log: an insert with its pre-allocated id, or an update,
+// optionally conditioned on the version the client had seen. version is the one the write leaves the
+// row at, the version the client was told.
+public record EmployeeWrite(Type type, long id, String firstName, String lastName, String email, Long expectedVersion,
+                            long version) {
+
+    public enum Type {
+        INSERT,
+        UPDATE
+    }
+
+    public static EmployeeWrite insert(Employee employee) {
+        return new EmployeeWrite(Type.INSERT, employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), null, 0);
+    }
+
+    public static EmployeeWrite update(long id, Employee employee, Long expectedVersion, long version) {
+        return new EmployeeWrite(Type.UPDATE, id, employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), expectedVersion, version);
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type.ordinal());
+            out.writeLong(id);
+            writeString(out, firstName);
+            writeString(out, lastName);
+            writeString(out, email);
+            out.writeBoolean(expectedVersion != null);
+            out.writeLong(expectedVersion == null ? 0 : expectedVersion);
+            out.writeLong(version);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static EmployeeWrite decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            Type type = Type.values()[in.readByte()];
+            long id = in.readLong();
+            String firstName = readString(in);
+            String lastName = readString(in);
+            String email = readString(in);
+            boolean conditional = in.readBoolean();
+            long expectedVersion = in.readLong();
+            long version = in.readLong();
+            return new EmployeeWrite(type, id, firstName, lastName, email, conditional ? expectedVersion : null, version);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if(value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
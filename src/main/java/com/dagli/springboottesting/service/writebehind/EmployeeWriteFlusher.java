@@ -0,0 +1,253 @@
+package com.dagli.springboottesting.service.writebehind;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// moves acknowledged writes from the log into the database in batches, one transaction per batch,
+// and only then moves the log checkpoint. A crash between the two replays the batch on the next start,
+// so every write is applied idempotently: inserts skip ids that are already there, updates set the row to
+// the version the client was told and only match rows below it. The listener hears about every write once
+// its batch has committed.
+@Slf4j
+public class EmployeeWriteFlusher implements SmartLifecycle {
+
+    private static final String INSERT = "insert into employees (id, first_name, last_name, email, version) "
+            + "values (:id, :firstName, :lastName, :email, 0)";
+    // one statement for conditional and unconditional updates, so the whole batch is a single JDBC batch
+    private static final String UPDATE = "update employees set first_name = :firstName, last_name = :lastName, "
+            + "email = :email, version = :version where id = :id and version < :version "
+            + "and (:expectedVersion is null or version = :expectedVersion)";
+
+    private final EmployeeWriteLog writeLog;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration interval;
+    private final EmployeeWriteListener listener;
+    private final Counter flushed;
+    private final Counter rejected;
+
+    private ScheduledExecutorService executor;
+    private volatile boolean running;
+
+    public EmployeeWriteFlusher(EmployeeWriteLog writeLog, NamedParameterJdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate, int batchSize, Duration interval,
+                                EmployeeWriteListener listener, MeterRegistry meterRegistry) {
+        this.writeLog = writeLog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.interval = interval;
+        this.listener = listener;
+        this.flushed = meterRegistry.counter("employee.write-behind.flushed");
+        this.rejected = meterRegistry.counter("employee.write-behind.rejected");
+        Gauge.builder("employee.write-behind.pending", writeLog, EmployeeWriteLog::pending).register(meterRegistry);
+    }
+
+    // writes everything appended so far, returns how many writes that was
+    public synchronized int flush() {
+        int count = 0;
+        EmployeeWriteLog.Batch batch = writeLog.read(writeLog.committedPosition(), batchSize);
+        while (!batch.isEmpty()) {
+            write(batch.writes(), replayed(batch));
+            writeLog.commit(batch);
+            count += batch.writes().size();
+            flushed.increment(batch.writes().size());
+            batch = writeLog.read(batch.end(), batchSize);
+        }
+        return count;
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // the first run replays whatever the previous process acknowledged but did not write
+        executor.scheduleWithFixedDelay(this::flushQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    // drains the log before the data source goes away, anything left is replayed on the next start
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (DataAccessException e) {
+            // the database is unavailable, the writes stay in the log and the next run retries them
+            log.warn("Could not flush employee writes, {} pending", writeLog.pending(), e);
+        }
+    }
+
+    // writes and rejections are only reported once the transaction that found them has committed
+    private void write(List<EmployeeWrite> writes, Set<EmployeeWrite> replayed) {
+        try {
+            report(writes, transactionTemplate.execute(status -> writeBatch(writes, replayed)));
+        } catch (DataIntegrityViolationException e) {
+            // some write breaks a constraint; apply them one at a time to find out which
+            for (EmployeeWrite write : writes) {
+                try {
+                    report(List.of(write), transactionTemplate.execute(status -> writeBatch(List.of(write), replayed)));
+                } catch (DataIntegrityViolationException rowException) {
+                    reject(new Rejection(write, rowException.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+    }
+
+    // by identity, the same update can be in the log twice
+    private static Set<EmployeeWrite> replayed(EmployeeWriteLog.Batch batch) {
+        Set<EmployeeWrite> replayed = Collections.newSetFromMap(new IdentityHashMap<>());
+        replayed.addAll(batch.writes().subList(0, batch.replayed()));
+        return replayed;
+    }
+
+    // by identity, the same update can be in the log twice
+    private void report(List<EmployeeWrite> writes, List<Rejection> rejections) {
+        Set<EmployeeWrite> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Rejection rejection : rejections) {
+            rejected.add(rejection.write());
+            reject(rejection);
+        }
+        for (EmployeeWrite write : writes) {
+            if(!rejected.contains(write)) {
+                listener.written(write);
+            }
+        }
+    }
+
+    private List<Rejection> writeBatch(List<EmployeeWrite> writes, Set<EmployeeWrite> replayed) {
+        List<Rejection> rejections = new ArrayList<>();
+        Set<Long> insertIds = new HashSet<>();
+        Set<String> insertEmails = new HashSet<>();
+        for (EmployeeWrite write : writes) {
+            if(write.type() == EmployeeWrite.Type.INSERT) {
+                insertIds.add(write.id());
+                insertEmails.add(write.email());
+            }
+        }
+        Set<Long> existingIds = insertIds.isEmpty() ? Set.of() : new HashSet<>(jdbcTemplate.queryForList(
+                "select id from employees where id in (:ids)", Map.of("ids", insertIds), Long.class));
+        insertEmails.remove(null);
+        Set<String> takenEmails = insertEmails.isEmpty() ? new HashSet<>() : new HashSet<>(jdbcTemplate.queryForList(
+                "select email from employees where email in (:emails)", Map.of("emails", insertEmails), String.class));
+
+        List<SqlParameterSource> inserts = new ArrayList<>();
+        for (EmployeeWrite write : writes) {
+            if(write.type() != EmployeeWrite.Type.INSERT || existingIds.contains(write.id())) {
+                // already written before the last checkpoint could be taken
+                continue;
+            }
+            // no email is fine, as for the synchronous saveEmployee
+            if(write.email() != null && !takenEmails.add(write.email())) {
+                rejections.add(new Rejection(write, "Employee already exist with given email:" + write.email()));
+                continue;
+            }
+            inserts.add(parameters(write));
+        }
+        if(!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, inserts.toArray(SqlParameterSource[]::new));
+        }
+
+        // inserts go first, an update never comes before the insert of the same id
+        List<EmployeeWrite> updates = writes.stream().filter(write -> write.type() == EmployeeWrite.Type.UPDATE).toList();
+        if(!updates.isEmpty()) {
+            int[] updatedRows = jdbcTemplate.batchUpdate(UPDATE,
+                    updates.stream().map(EmployeeWriteFlusher::parameters).toArray(SqlParameterSource[]::new));
+            List<EmployeeWrite> missed = new ArrayList<>();
+            for (int i = 0; i < updatedRows.length; i++) {
+                // drivers that rewrite batches may only report SUCCESS_NO_INFO
+                if(updatedRows[i] == 0) {
+                    missed.add(updates.get(i));
+                }
+            }
+            Map<Long, Long> versions = appliedVersions(missed, replayed);
+            for (EmployeeWrite update : missed) {
+                Long version = versions.get(update.id());
+                if(!replayed.contains(update) || version == null || version < update.version()) {
+                    rejections.add(new Rejection(update, "Employee " + update.id() + " is gone or was updated since version "
+                            + update.expectedVersion()));
+                }
+            }
+        }
+        return rejections;
+    }
+
+    // a replayed update that matches no row may have been applied before the crash: then the row is at its
+    // version or a later one, and there is nothing to reject
+    private Map<Long, Long> appliedVersions(List<EmployeeWrite> missed, Set<EmployeeWrite> replayed) {
+        Set<Long> ids = new HashSet<>();
+        for (EmployeeWrite update : missed) {
+            if(replayed.contains(update)) {
+                ids.add(update.id());
+            }
+        }
+        Map<Long, Long> versions = new HashMap<>();
+        if(!ids.isEmpty()) {
+            jdbcTemplate.query("select id, version from employees where id in (:ids)", Map.of("ids", ids),
+                    row -> { versions.put(row.getLong("id"), row.getLong("version")); });
+        }
+        return versions;
+    }
+
+    private void reject(Rejection rejection) {
+        EmployeeWrite write = rejection.write();
+        log.warn("Dropping {} of employee {}: {}", write.type(), write.id(), rejection.reason());
+        rejected.increment();
+        listener.rejected(write);
+    }
+
+    private static SqlParameterSource parameters(EmployeeWrite write) {
+        return new MapSqlParameterSource()
+                .addValue("id", write.id())
+                .addValue("firstName", write.firstName())
+                .addValue("lastName", write.lastName())
+                .addValue("email", write.email())
+                .addValue("expectedVersion", write.expectedVersion(), Types.BIGINT)
+                .addValue("version", write.version());
+    }
+
+    private record Rejection(EmployeeWrite write, String reason) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.dagli.springboottesting.service.writebehind;
+
+// told by EmployeeWriteFlusher what became of each write, once the transaction that wrote it has committed
+@FunctionalInterface
+public interface EmployeeWriteListener {
+
+    void rejected(EmployeeWrite write);
+
+    default void written(EmployeeWrite write) {
+    }
+}
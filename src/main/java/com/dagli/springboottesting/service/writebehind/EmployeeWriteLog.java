@@ -0,0 +1,283 @@
+package com.dagli.springboottesting.service.writebehind;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+// append-only log of acknowledged employee writes, kept in memory-mapped segment files.
+// A record is [length][crc32][payload]; the length goes in last, so a reader never sees a half-written
+// record as complete, and the checksum catches records torn by a crash. The checkpoint file holds the
+// position up to which the database already has every write; on open, everything after it is pending again.
+//
+// A write is in the OS page cache once append returns, which survives the process dying. With
+// forceOnAppend it is also on disk, which survives losing the machine, at the cost of an fsync per write.
+public class EmployeeWriteLog implements Closeable {
+
+    static final int RECORD_HEADER_SIZE = 8;
+
+    private static final int SEGMENT_END = -1;
+    private static final String CHECKPOINT = "checkpoint";
+
+    // a batch of records and the position right after the last one, to be handed back to commit.
+    // The first replayed writes were recovered from the log of an earlier process, which may have
+    // written them to the database before it could move the checkpoint.
+    public record Batch(List<EmployeeWrite> writes, int replayed, long end) {
+
+        public boolean isEmpty() {
+            return writes.isEmpty();
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean forceOnAppend;
+
+    // mapped segments from the committed position up to the one being appended to
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private long committedPosition;
+    private long appendPosition;
+    // the end of the log as it was found on open
+    private long recoveredPosition;
+    private long pending;
+
+    public EmployeeWriteLog(Path directory, int segmentSize, boolean forceOnAppend) {
+        this.directory = directory;
+        this.forceOnAppend = forceOnAppend;
+        try {
+            Files.createDirectories(directory);
+            Checkpoint checkpoint = readCheckpoint();
+            // positions are only meaningful with the segment size they were written with
+            this.segmentSize = checkpoint == null ? segmentSize : checkpoint.segmentSize;
+            this.committedPosition = checkpoint == null ? 0 : checkpoint.position;
+            deleteSegmentsBefore(segmentOf(committedPosition));
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the employee write log in " + directory, e);
+        }
+    }
+
+    public synchronized long append(EmployeeWrite write) {
+        byte[] payload = write.encode();
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        if(recordSize > segmentSize) {
+            throw new IllegalArgumentException("Write of " + recordSize + " bytes does not fit a log segment of " + segmentSize);
+        }
+
+        int offset = offsetOf(appendPosition);
+        if(offset + recordSize > segmentSize) {
+            MappedByteBuffer full = segment(segmentOf(appendPosition));
+            if(segmentSize - offset >= Integer.BYTES) {
+                full.putInt(offset, SEGMENT_END);
+            }
+            appendPosition = (segmentOf(appendPosition) + 1) * segmentSize;
+            offset = 0;
+        }
+
+        MappedByteBuffer buffer = segment(segmentOf(appendPosition));
+        buffer.put(offset + RECORD_HEADER_SIZE, payload);
+        buffer.putInt(offset + Integer.BYTES, checksum(payload));
+        buffer.putInt(offset, payload.length);
+        if(forceOnAppend) {
+            buffer.force(offset, recordSize);
+        }
+        appendPosition += recordSize;
+        pending++;
+        return appendPosition;
+    }
+
+    // up to maxWrites records starting at position, which is the committed position or the end of an earlier batch
+    public synchronized Batch read(long position, int maxWrites) {
+        List<EmployeeWrite> writes = new ArrayList<>();
+        int replayed = 0;
+        while (writes.size() < maxWrites && position < appendPosition) {
+            int offset = offsetOf(position);
+            ByteBuffer buffer = segment(segmentOf(position));
+            int length = segmentSize - offset < Integer.BYTES ? SEGMENT_END : buffer.getInt(offset);
+            if(length == SEGMENT_END) {
+                position = (segmentOf(position) + 1) * segmentSize;
+                continue;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(offset + RECORD_HEADER_SIZE, payload);
+            writes.add(EmployeeWrite.decode(payload));
+            if(position < recoveredPosition) {
+                replayed++;
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return new Batch(writes, replayed, position);
+    }
+
+    // the database has every write before position: move the checkpoint and drop the segments it passed
+    public synchronized void commit(Batch batch) {
+        if(batch.end <= committedPosition) {
+            return;
+        }
+        try {
+            writeCheckpoint(batch.end);
+            committedPosition = batch.end;
+            pending -= batch.writes.size();
+            long firstSegment = segmentOf(committedPosition);
+            while (!segments.isEmpty() && segments.firstKey() < firstSegment) {
+                segments.pollFirstEntry();
+            }
+            deleteSegmentsBefore(firstSegment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the employee write log checkpoint", e);
+        }
+    }
+
+    public synchronized long committedPosition() {
+        return committedPosition;
+    }
+
+    // writes appended but not committed yet, including the ones recovered on open
+    public synchronized long pending() {
+        return pending;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (MappedByteBuffer buffer : segments.values()) {
+            buffer.force();
+        }
+        segments.clear();
+    }
+
+    // finds the end of the log by walking the records after the checkpoint; the first record that is
+    // missing or fails its checksum was torn by a crash, and everything from there on is zeroed
+    private void recover() throws IOException {
+        long position = committedPosition;
+        while (true) {
+            long segment = segmentOf(position);
+            if(!Files.exists(segmentPath(segment))) {
+                break;
+            }
+            int offset = offsetOf(position);
+            ByteBuffer buffer = segment(segment);
+            int length = segmentSize - offset < Integer.BYTES ? SEGMENT_END : buffer.getInt(offset);
+            if(length == SEGMENT_END) {
+                position = (segment + 1) * segmentSize;
+                continue;
+            }
+            if(length <= 0 || offset + RECORD_HEADER_SIZE + length > segmentSize) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(offset + RECORD_HEADER_SIZE, payload);
+            if(buffer.getInt(offset + Integer.BYTES) != checksum(payload)) {
+                break;
+            }
+            position += RECORD_HEADER_SIZE + length;
+            pending++;
+        }
+        appendPosition = position;
+        recoveredPosition = position;
+
+        long lastSegment = segmentOf(appendPosition);
+        int end = offsetOf(appendPosition);
+        if(Files.exists(segmentPath(lastSegment)) && segmentSize - end >= Integer.BYTES && segment(lastSegment).getInt(end) != 0) {
+            MappedByteBuffer buffer = segment(lastSegment);
+            for (int offset = end; offset < segmentSize; offset++) {
+                buffer.put(offset, (byte) 0);
+            }
+            buffer.force();
+        }
+        // segments after a torn record never held an acknowledged write
+        try (var paths = Files.list(directory)) {
+            for (Path path : paths.toList()) {
+                Long segment = segmentIndex(path);
+                if(segment != null && segment > lastSegment) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private MappedByteBuffer segment(long segment) {
+        MappedByteBuffer buffer = segments.get(segment);
+        if(buffer == null) {
+            try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map employee write log segment " + segment, e);
+            }
+            segments.put(segment, buffer);
+        }
+        return buffer;
+    }
+
+    private void deleteSegmentsBefore(long firstSegment) throws IOException {
+        try (var paths = Files.list(directory)) {
+            for (Path path : paths.toList()) {
+                Long segment = segmentIndex(path);
+                if(segment != null && segment < firstSegment) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private Checkpoint readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT);
+        if(!Files.exists(path)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        return new Checkpoint(buffer.getInt(), buffer.getLong());
+    }
+
+    // written next to the old one and moved over it, so a crash leaves either the old or the new checkpoint
+    private void writeCheckpoint(long position) throws IOException {
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + Long.BYTES).putInt(segmentSize).putLong(position).flip();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("segment-%020d.log", segment));
+    }
+
+    private static Long segmentIndex(Path path) {
+        String name = path.getFileName().toString();
+        if(!name.startsWith("segment-") || !name.endsWith(".log")) {
+            return null;
+        }
+        return Long.parseLong(name.substring("segment-".length(), name.length() - ".log".length()));
+    }
+
+    private long segmentOf(long position) {
+        return position / segmentSize;
+    }
+
+    private int offsetOf(long position) {
+        return (int) (position % segmentSize);
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private record Checkpoint(int segmentSize, long position) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.dagli.springboottesting.startup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Connector;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// a CRaC checkpoint fails on open sockets, and a restored process must not reuse connections that belonged
+// to another process: before the checkpoint Tomcat's connectors are stopped (they only give up the listening
+// socket with bindOnInit=false, see CheckpointConfig) and every Hikari pool is suspended and emptied.
+// After the restore the pools resume, which refills them with new connections, and the connectors start again.
+// Spring Boot 3.1 has no checkpoint support of its own, stopping the context would destroy Tomcat for good.
+@Slf4j
+public class CheckpointRestoreResource implements Resource {
+
+    private final List<HikariDataSource> dataSources;
+    private final Supplier<TomcatWebServer> webServer;
+    private final Duration drainTimeout;
+    private final List<Connector> stoppedConnectors = new ArrayList<>();
+    private final List<HikariPoolMXBean> suspendedPools = new ArrayList<>();
+
+    public CheckpointRestoreResource(List<HikariDataSource> dataSources, Supplier<TomcatWebServer> webServer,
+                                     Duration drainTimeout) {
+        this.dataSources = dataSources;
+        this.webServer = webServer;
+        this.drainTimeout = drainTimeout;
+    }
+
+    // org.crac only keeps a weak reference, the bean itself keeps the resource alive
+    public void register() {
+        Core.getGlobalContext().register(this);
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws Exception {
+        TomcatWebServer tomcat = webServer.get();
+        if(tomcat != null) {
+            for (Connector connector : tomcat.getTomcat().getService().findConnectors()) {
+                if(connector.getPort() == 0) {
+                    // a random port (server.port=0) would be a different one after the restore
+                    connector.setPort(connector.getLocalPort());
+                }
+                connector.stop();
+                stoppedConnectors.add(connector);
+            }
+        }
+        for (HikariDataSource dataSource : dataSources) {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            if(pool == null) {
+                // never asked for a connection, nothing to close
+                continue;
+            }
+            // new getConnection calls wait until the restore, idle connections close now and busy ones when returned
+            pool.suspendPool();
+            suspendedPools.add(pool);
+            pool.softEvictConnections();
+            awaitEmpty(dataSource.getPoolName(), pool);
+        }
+        log.info("Ready for checkpoint: stopped {} connectors and emptied {} connection pools",
+                stoppedConnectors.size(), suspendedPools.size());
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) throws Exception {
+        // pools first, the first request after the connectors start should not wait for a connection
+        for (HikariPoolMXBean pool : suspendedPools) {
+            pool.resumePool();
+        }
+        for (Connector connector : stoppedConnectors) {
+            connector.start();
+        }
+        log.info("Restored: resumed {} connection pools and started {} connectors",
+                suspendedPools.size(), stoppedConnectors.size());
+        suspendedPools.clear();
+        stoppedConnectors.clear();
+    }
+
+    private void awaitEmpty(String poolName, HikariPoolMXBean pool) throws InterruptedException {
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        while (pool.getTotalConnections() > 0) {
+            if(System.nanoTime() - deadline > 0) {
+                // throwing aborts the checkpoint and the process carries on, afterRestore resumes what was suspended
+                throw new IllegalStateException(poolName + " still has " + pool.getActiveConnections()
+                        + " connections in use after " + drainTimeout.toMillis() + " ms");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.dagli.springboottesting.startup;
+
+import com.dagli.springboottesting.dto.EmployeePage;
+import com.dagli.springboottesting.entity.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.crac.CheckpointException;
+import org.crac.Core;
+import org.crac.RestoreException;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+// sends real requests to the read endpoints once the application is up, so the first callers do not pay for
+// class loading, Hibernate's query plans, Jackson's serializers and interpreted code. Runs before readiness
+// switches to ACCEPTING_TRAFFIC. Writes are left out, the warm-up must not change the table; reading the pages
+// back through Jackson covers the Employee deserializer the create and update requests use.
+// Afterwards the process can exit (the training run of an AppCDS archive) or take a CRaC checkpoint.
+@Slf4j
+public class EmployeeApiWarmup {
+
+    public enum Then {
+        RUN, EXIT, CHECKPOINT
+    }
+
+    private static final String PATH = "/api/v1/employees";
+
+    private final ObjectMapper objectMapper;
+    private final int iterations;
+    private final Then then;
+    private int requests;
+
+    public EmployeeApiWarmup(ObjectMapper objectMapper, int iterations, Then then) {
+        this.objectMapper = objectMapper;
+        this.iterations = iterations;
+        this.then = then;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) throws IOException {
+        if(!(event.getApplicationContext() instanceof WebServerApplicationContext webContext)) {
+            return;
+        }
+        warmUp("http://localhost:" + webContext.getWebServer().getPort() + PATH);
+
+        if(then == Then.EXIT) {
+            log.info("Warm-up done, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        } else if(then == Then.CHECKPOINT) {
+            checkpoint();
+        }
+    }
+
+    public void warmUp(String baseUrl) throws IOException {
+        long start = System.nanoTime();
+        long firstRound = 0;
+        long lastRound = 0;
+        for (int i = 0; i < iterations; i++) {
+            long roundStart = System.nanoTime();
+            round(baseUrl);
+            lastRound = System.nanoTime() - roundStart;
+            if(i == 0) {
+                firstRound = lastRound;
+            }
+        }
+        log.info("Warmed up with {} requests in {} ms, first round {} ms, last round {} ms", requests,
+                (System.nanoTime() - start) / 1_000_000, firstRound / 1_000_000, lastRound / 1_000_000);
+    }
+
+    public int getRequests() {
+        return requests;
+    }
+
+    private void round(String baseUrl) throws IOException {
+        EmployeePage page = objectMapper.readValue(get(baseUrl + "/page?size=50", null), EmployeePage.class);
+        get(baseUrl + "/summary?size=50", null);
+        if(page.getEmployees().isEmpty()) {
+            // an empty table still exercises the lookups and the 404 path
+            get(baseUrl + "/search?q=a", null);
+            get(baseUrl + "/0", null);
+            return;
+        }
+        Employee employee = page.getEmployees().get(0);
+        String prefix = employee.getFirstName().isEmpty() ? "a" : employee.getFirstName().substring(0, 1);
+        get(baseUrl + "/search?q=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8), null);
+        get(baseUrl + "/" + employee.getId(), null);
+        get(baseUrl + "/" + employee.getId(), "\"" + employee.getVersion() + "\"");
+    }
+
+    // Connection: close, a kept-alive socket would make the checkpoint fail
+    private byte[] get(String url, String ifNoneMatch) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+        try {
+            connection.setRequestProperty("Connection", "close");
+            connection.setRequestProperty("Accept", "application/json");
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+            if(ifNoneMatch != null) {
+                connection.setRequestProperty("If-None-Match", ifNoneMatch);
+            }
+            int status = connection.getResponseCode();
+            requests++;
+            InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if(body == null) {
+                return new byte[0];
+            }
+            try (InputStream in = "gzip".equals(connection.getContentEncoding()) ? new GZIPInputStream(body) : body) {
+                return in.readAllBytes();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private void checkpoint() {
+        long start = System.currentTimeMillis();
+        try {
+            Core.checkpointRestore();
+            log.info("Restored from checkpoint, {} ms after it was taken", System.currentTimeMillis() - start);
+        } catch (UnsupportedOperationException e) {
+            log.warn("No checkpoint taken, this JVM does not support CRaC");
+        } catch (CheckpointException | RestoreException e) {
+            // either way the application keeps running, warm, in this process or the restored one
+            log.warn("Checkpoint failed", e);
+        }
+    }
+}
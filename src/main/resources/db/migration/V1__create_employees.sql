@@ -0,0 +1,10 @@
+-- the schema Hibernate generated from the original Employee (IDENTITY id, no version) with ddl-auto=update.
+-- Databases created that way are baselined at this version (spring.flyway.baseline-on-migrate) and go on with V2.
+
+create table employees (
+    id bigint not null auto_increment,
+    email varchar(255),
+    first_name varchar(255),
+    last_name varchar(255),
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,26 @@
+-- unique emails, first: MySQL cannot roll DDL back, so if this fails nothing else has been changed yet.
+-- The original application never enforced unique emails, so an older table may hold duplicates. Then the
+-- migration fails and the application does not start until they are resolved by hand:
+--   select email, count(*) from employees where email is not null group by email having count(*) > 1;
+-- change or clear the email of all but one employee per address, run flyway repair to remove the failed
+-- V2 from flyway_schema_history, and start the application again.
+alter table employees add constraint uk_employees_email unique (email);
+
+-- optimistic locking: rows that already exist start at version 0
+alter table employees add column version bigint not null default 0;
+
+-- ids now come from the @TableGenerator employee_id instead of AUTO_INCREMENT
+alter table employees modify id bigint not null;
+
+create table id_generator (
+    next_id bigint,
+    name varchar(255) not null,
+    primary key (name)
+) engine=InnoDB;
+
+-- Hibernate stores the last value it used and hands out the 50 ids up to the stored value + 1,
+-- so max(id) + 49 makes max(id) + 1 the first new id
+insert into id_generator (name, next_id)
+select 'employees', coalesce(max(id), 0) + 49 from employees;
+
+create index idx_employees_last_first on employees (last_name, first_name);
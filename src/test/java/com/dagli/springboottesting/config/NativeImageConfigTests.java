@@ -0,0 +1,34 @@
+package com.dagli.springboottesting.config;
+
+import com.dagli.springboottesting.dto.EmployeeSummary;
+import com.dagli.springboottesting.metrics.SqlLogSamplingFilter;
+import com.dagli.springboottesting.metrics.SqlStatementCounter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NativeImageConfigTests {
+
+    // JUnit test for the reflection hints of the native image
+    @Test
+    @DisplayName("JUnit test for the reflection hints of the native image")
+    public void givenRuntimeHints_whenRegisterHints_thenReflectiveClassesAreReachable() throws Exception {
+        // given - precondition or setup
+        RuntimeHints hints = new RuntimeHints();
+
+        // when - action or the behaviour that we are going test
+        new NativeImageConfig.EmployeeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // then - verify the output
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(SqlStatementCounter.class.getConstructor())).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(SqlLogSamplingFilter.class, "setSampleEvery")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(EmployeeSummary.class.getConstructor(
+                long.class, String.class, String.class, String.class))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(Executors.class)).accepts(hints);
+    }
+}
@@ -1,20 +1,37 @@
 package com.dagli.springboottesting.controller;
 
+import com.dagli.springboottesting.config.JacksonBinaryFormatsConfig;
+import com.dagli.springboottesting.dto.EmployeeBatchResult;
+import com.dagli.springboottesting.dto.EmployeeImportReport;
+import com.dagli.springboottesting.dto.EmployeePage;
+import com.dagli.springboottesting.dto.EmployeeSummary;
 import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.service.EmployeeImportService;
 import com.dagli.springboottesting.service.EmployeeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -23,6 +40,7 @@ import static org.mockito.BDDMockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
 @WebMvcTest
+@Import({IdempotencyStore.class, JacksonBinaryFormatsConfig.class})
 public class EmployeeControllerTests {
 
     @Autowired
@@ -31,6 +49,9 @@ public class EmployeeControllerTests {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeImportService employeeImportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -64,6 +85,126 @@ public class EmployeeControllerTests {
     }
 
 
+    // Junit test for create employee REST API retried with an Idempotency-Key
+    @Test
+    public void givenIdempotencyKey_whenRetryCreateEmployee_thenReplayOriginalResponse() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("eren")
+                .lastName("dagli")
+                .email("eren.dagli@gmail.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> {
+                    Employee savedEmployee = invocation.getArgument(0);
+                    savedEmployee.setId(1L);
+                    return savedEmployee;
+                });
+        mockMvc.perform(post("/api/v1/employees")
+                .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "create-retry")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/v1/employees")
+                .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "create-retry")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyStore.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id", is(1)));
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    // Junit test for create employee REST API with a reused Idempotency-Key
+    @Test
+    public void givenReusedIdempotencyKey_whenCreateAnotherEmployee_thenReturnUnprocessableEntity() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("eren")
+                .lastName("dagli")
+                .email("eren.dagli@gmail.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+        mockMvc.perform(post("/api/v1/employees")
+                .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "create-reused")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        employee.setEmail("ahmet.dagli@gmail.com");
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/v1/employees")
+                .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "create-reused")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the output
+        response.andExpect(status().isUnprocessableEntity());
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    // Junit test for update employee REST API retried with an Idempotency-Key
+    @Test
+    public void givenIdempotencyKey_whenRetryUpdateEmployee_thenReplayOriginalResponseWithETag() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("eren")
+                .lastName("dagli")
+                .email("eren.dagli@gmail.com")
+                .build();
+        given(employeeService.updateEmployee(eq(1L), any(Employee.class), eq(2L)))
+                .willReturn(Optional.of(Employee.builder().id(1L).firstName("eren").lastName("dagli")
+                        .email("eren.dagli@gmail.com").version(3L).build()))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1L));
+        mockMvc.perform(put("/api/v1/employees/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "update-retry")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(put("/api/v1/employees/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "update-retry")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(header().string(IdempotencyStore.REPLAYED_HEADER, "true"));
+        verify(employeeService, times(1)).updateEmployee(eq(1L), any(Employee.class), eq(2L));
+    }
+
+    // Junit test for batch create employees REST API
+    @Test
+    public void givenListOfEmployees_whenCreateEmployees_thenReturnResultPerEmployee() throws Exception {
+        // given - precondition or setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build());
+        listOfEmployees.add(Employee.builder().firstName("ahmet").lastName("dagli").email("eren.dagli@gmail.com").build());
+        given(employeeService.saveEmployees(anyList())).willReturn(List.of(
+                EmployeeBatchResult.created(0, 1L),
+                EmployeeBatchResult.failed(1, "Employee already exist with given email:eren.dagli@gmail.com")));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/v1/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(listOfEmployees)));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[1].error", is("Employee already exist with given email:eren.dagli@gmail.com")));
+    }
+
+
     // Junit test for get all employees REST API
     @Test
     public void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeesList() throws Exception {
@@ -71,16 +212,195 @@ public class EmployeeControllerTests {
         List<Employee> listOfEmployees = new ArrayList<>();
         listOfEmployees.add(Employee.builder().firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build());
         listOfEmployees.add(Employee.builder().firstName("ahmet").lastName("dagli").email("ahmet.dagli@gmail.com").build());
-        given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
+        given(employeeService.getEmployeesAfter(isNull(), anyInt())).willReturn(new EmployeePage(listOfEmployees, null));
 
         // when - action or the behaviour that we are going test
-        ResultActions response = mockMvc.perform(get("/api/v1/employees"));
+        MvcResult result = mockMvc.perform(get("/api/v1/employees"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
         // then - verify the output
-        response.andExpect(status().isOk())
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
                 .andDo(print())
                 .andExpect(jsonPath("$.size()",
                         is(listOfEmployees.size())));
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    // Junit test for get all employees REST API streaming several pages
+    @Test
+    public void givenEmployeesPages_whenGetAllEmployees_thenWriteOneJsonArray() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build();
+        Employee employee1 = Employee.builder().id(2L).firstName("ahmet").lastName("dagli").email("ahmet.dagli@gmail.com").build();
+        given(employeeService.getEmployeesAfter(isNull(), anyInt())).willReturn(new EmployeePage(List.of(employee), 1L));
+        given(employeeService.getEmployeesAfter(eq(1L), anyInt())).willReturn(new EmployeePage(List.of(employee1), null));
+
+        // when - action or the behaviour that we are going test
+        MvcResult result = mockMvc.perform(get("/api/v1/employees").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the output
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(List.of(employee, employee1))));
+    }
+
+    // Junit test for get employee summaries REST API
+    @Test
+    public void givenEmployeeSummaries_whenGetEmployeeSummaries_thenReturnSummariesList() throws Exception {
+        // given - precondition or setup
+        given(employeeService.getEmployeeSummaries()).willReturn(List.of(
+                new EmployeeSummary(1L, "eren", "dagli", "eren.dagli@gmail.com"),
+                new EmployeeSummary(2L, "ahmet", "dagli", "ahmet.dagli@gmail.com")));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/v1/employees/summary"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[1].email", is("ahmet.dagli@gmail.com")));
+    }
+
+    // Junit test for search employees REST API
+    @Test
+    public void givenSearchQuery_whenSearchEmployees_thenReturnRankedSummaries() throws Exception {
+        // given - precondition or setup
+        given(employeeService.searchEmployees("dag", 5)).willReturn(Optional.of(List.of(
+                new EmployeeSummary(1L, "eren", "dagli", "eren.dagli@gmail.com"),
+                new EmployeeSummary(2L, "ahmet", "dagli", "ahmet.dagli@gmail.com"))));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/v1/employees/search")
+                .param("q", "dag")
+                .param("limit", "5"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].id", is(1)));
+    }
+
+    // Junit test for search employees REST API
+    @Test
+    public void givenSearchDisabled_whenSearchEmployees_thenReturnNotFound() throws Exception {
+        // given - precondition or setup
+        given(employeeService.searchEmployees("dag", 10)).willReturn(Optional.empty());
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/v1/employees/search")
+                .param("q", "dag"));
+
+        // then - verify the output
+        response.andExpect(status().isNotFound());
+    }
+
+    // Junit test for search employees REST API
+    @Test
+    public void givenTooLargeLimit_whenSearchEmployees_thenReturnBadRequest() throws Exception {
+        // given - precondition or setup
+        int limit = EmployeeController.MAX_SEARCH_LIMIT + 1;
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/v1/employees/search")
+                .param("q", "dag")
+                .param("limit", String.valueOf(limit)));
+
+        // then - verify the output
+        response.andExpect(status().isBadRequest());
+        verify(employeeService, never()).searchEmployees(anyString(), anyInt());
+    }
+
+    // Junit test for get employees page REST API
+    @Test
+    public void givenEmployeesPage_whenGetEmployeesPage_thenReturnPageWithNextCursor() throws Exception {
+        // given - precondition or setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().id(11L).firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build());
+        listOfEmployees.add(Employee.builder().id(12L).firstName("ahmet").lastName("dagli").email("ahmet.dagli@gmail.com").build());
+        given(employeeService.getEmployeesAfter(10L, 2)).willReturn(new EmployeePage(listOfEmployees, 12L));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/v1/employees/page")
+                .param("after", "10")
+                .param("size", "2"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.employees.size()", is(2)))
+                .andExpect(jsonPath("$.next", is(12)));
+    }
+
+    // Junit test for get employees page REST API with an invalid size
+    @Test
+    public void givenInvalidPageSize_whenGetEmployeesPage_thenReturnBadRequest() throws Exception {
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/v1/employees/page")
+                .param("size", "0"));
+
+        // then - verify the output
+        response.andExpect(status().isBadRequest());
+        verify(employeeService, never()).getEmployeesAfter(any(), anyInt());
+    }
+
+    // Junit test for stream employees REST API
+    @Test
+    public void givenEmployeesPages_whenStreamEmployees_thenWriteOneLinePerEmployee() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build();
+        Employee employee1 = Employee.builder().id(2L).firstName("ahmet").lastName("dagli").email("ahmet.dagli@gmail.com").build();
+        given(employeeService.getEmployeesAfter(isNull(), anyInt())).willReturn(new EmployeePage(List.of(employee), 1L));
+        given(employeeService.getEmployeesAfter(eq(1L), anyInt())).willReturn(new EmployeePage(List.of(employee1), null));
+
+        // when - action or the behaviour that we are going test
+        MvcResult result = mockMvc.perform(get("/api/v1/employees/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the output
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        objectMapper.writeValueAsString(employee) + "\n" + objectMapper.writeValueAsString(employee1) + "\n"));
+    }
+
+    // Junit test for export employees REST API
+    @Test
+    public void givenEmployees_whenExportEmployeesWithGzip_thenWriteCompressedCsv() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").version(0L).build();
+        Employee employee1 = Employee.builder().id(2L).firstName("ahmet, jr").lastName("dagli").email("ahmet.dagli@gmail.com").version(3L).build();
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            consumer.accept(employee1);
+            return null;
+        }).given(employeeService).exportEmployees(any());
+
+        // when - action or the behaviour that we are going test
+        MvcResult result = mockMvc.perform(get("/api/v1/employees/export")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the output
+        MvcResult response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andReturn();
+        byte[] csv = new GZIPInputStream(new ByteArrayInputStream(response.getResponse().getContentAsByteArray())).readAllBytes();
+        assertThat(new String(csv, StandardCharsets.UTF_8)).isEqualTo("id,firstName,lastName,email,version\n"
+                + "1,eren,dagli,eren.dagli@gmail.com,0\n"
+                + "2,\"ahmet, jr\",dagli,ahmet.dagli@gmail.com,3\n");
     }
 
     // positive scenario - valid employee id
@@ -128,6 +448,70 @@ public class EmployeeControllerTests {
                 .andDo(print());
     }
 
+    // Junit test for get employee by id REST API returning an ETag
+    @Test
+    public void givenVersionedEmployee_whenGetEmployeeById_thenReturnETag() throws Exception {
+        // given - precondition or setup
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("eren")
+                .lastName("dagli")
+                .email("eren.dagli@gmail.com")
+                .version(3L)
+                .build();
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/v1/employees/{id}", employeeId));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    // Junit test for conditional get employee by id REST API
+    @Test
+    public void givenMatchingETag_whenGetEmployeeById_thenReturnNotModified() throws Exception {
+        // given - precondition or setup
+        long employeeId = 1L;
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(3L));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/v1/employees/{id}", employeeId)
+                .header("If-None-Match", "\"3\""));
+
+        // then - verify the output
+        response.andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+        verify(employeeService, never()).getEmployeeById(employeeId);
+    }
+
+    // Junit test for update employee REST API with a stale If-Match
+    @Test
+    public void givenStaleIfMatch_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception {
+        // given - precondition or setup
+        long employeeId = 1L;
+        Employee updatedEmployee = Employee.builder()
+                .firstName("ahmet")
+                .lastName("dagli")
+                .email("ahmet.dagli@gmail.com")
+                .build();
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), eq(3L)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employeeId));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(put("/api/v1/employees/{id}", employeeId)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        // then - verify the output
+        response.andExpect(status().isPreconditionFailed());
+        verify(employeeService, never()).getEmployeeById(employeeId);
+    }
+
     // positive scenario - valid employee id
     // Junit test for update employee REST API
     @Test
@@ -144,9 +528,8 @@ public class EmployeeControllerTests {
                 .lastName("dagli")
                 .email("ahmet.dagli@gmail.com")
                 .build();
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
-        given(employeeService.updateEmployee(any(Employee.class)))
-                .willAnswer((invocation) -> invocation.getArgument(0));
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), isNull()))
+                .willAnswer((invocation) -> Optional.of(invocation.getArgument(1)));
 
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(put("/api/v1/employees/{id}", employeeId)
@@ -162,6 +545,129 @@ public class EmployeeControllerTests {
 
     }
 
+    // Junit test for create employee REST API with a CBOR request and response
+    @Test
+    public void givenCborEmployee_whenCreateEmployee_thenReturnCborEmployee() throws Exception {
+        // given - precondition or setup
+        CBORMapper cborMapper = new CBORMapper();
+        Employee employee = Employee.builder()
+                .firstName("eren")
+                .lastName("dagli")
+                .email("eren.dagli@gmail.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/v1/employees")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(cborMapper.writeValueAsBytes(employee)));
+
+        // then - verify the output
+        MvcResult result = response.andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+        Employee created = cborMapper.readValue(result.getResponse().getContentAsByteArray(), Employee.class);
+        assertThat(created.getFirstName()).isEqualTo(employee.getFirstName());
+        assertThat(created.getEmail()).isEqualTo(employee.getEmail());
+    }
+
+    // Junit test for update employee REST API with a Smile request and response
+    @Test
+    public void givenSmileEmployee_whenUpdateEmployee_thenReturnSmileEmployee() throws Exception {
+        // given - precondition or setup
+        SmileMapper smileMapper = new SmileMapper();
+        MediaType smile = new MediaType("application", "x-jackson-smile");
+        long employeeId = 1L;
+        Employee updatedEmployee = Employee.builder()
+                .firstName("ahmet")
+                .lastName("dagli")
+                .email("ahmet.dagli@gmail.com")
+                .build();
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), isNull()))
+                .willAnswer((invocation) -> Optional.of(invocation.getArgument(1)));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(put("/api/v1/employees/{id}", employeeId)
+                .contentType(smile)
+                .accept(smile)
+                .content(smileMapper.writeValueAsBytes(updatedEmployee)));
+
+        // then - verify the output
+        MvcResult result = response.andExpect(status().isOk())
+                .andExpect(content().contentType(smile))
+                .andReturn();
+        Employee updated = smileMapper.readValue(result.getResponse().getContentAsByteArray(), Employee.class);
+        assertThat(updated.getFirstName()).isEqualTo(updatedEmployee.getFirstName());
+        assertThat(updated.getEmail()).isEqualTo(updatedEmployee.getEmail());
+    }
+
+    // Junit test for get all employees REST API without a preferred format
+    @Test
+    public void givenAnyAccept_whenGetAllEmployees_thenReturnJson() throws Exception {
+        // given - precondition or setup
+        given(employeeService.getEmployeesAfter(isNull(), anyInt()))
+                .willReturn(new EmployeePage(List.of(Employee.builder().id(1L).firstName("eren").build()), null));
+
+        // when - action or the behaviour that we are going test
+        MvcResult result = mockMvc.perform(get("/api/v1/employees").accept(MediaType.ALL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the output
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].firstName", is("eren")));
+    }
+
+    // Junit test for get all employees REST API in a binary format
+    @Test
+    public void givenCborAccept_whenGetAllEmployees_thenStreamCborList() throws Exception {
+        // given - precondition or setup
+        given(employeeService.getEmployeesAfter(isNull(), anyInt()))
+                .willReturn(new EmployeePage(List.of(Employee.builder().id(1L).firstName("eren").build()), 1L));
+        given(employeeService.getEmployeesAfter(eq(1L), anyInt()))
+                .willReturn(new EmployeePage(List.of(Employee.builder().id(2L).firstName("ahmet").build()), null));
+
+        // when - action or the behaviour that we are going test
+        MvcResult started = mockMvc.perform(get("/api/v1/employees").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the output
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+        Employee[] employees = new CBORMapper().readValue(result.getResponse().getContentAsByteArray(), Employee[].class);
+        assertThat(employees).extracting(Employee::getFirstName).containsExactly("eren", "ahmet");
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    // Junit test for get all employees REST API in Smile
+    @Test
+    public void givenSmileAccept_whenGetAllEmployees_thenStreamSmileList() throws Exception {
+        // given - precondition or setup
+        MediaType smile = new MediaType("application", "x-jackson-smile");
+        given(employeeService.getEmployeesAfter(isNull(), anyInt()))
+                .willReturn(new EmployeePage(List.of(Employee.builder().id(1L).firstName("eren").build()), null));
+
+        // when - action or the behaviour that we are going test
+        MvcResult started = mockMvc.perform(get("/api/v1/employees").accept(smile))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the output
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smile))
+                .andReturn();
+        Employee[] employees = new SmileMapper().readValue(result.getResponse().getContentAsByteArray(), Employee[].class);
+        assertThat(employees).extracting(Employee::getFirstName).containsExactly("eren");
+    }
+
     // negative scenario - valid employee id
     // Junit test for update employee REST API
     @Test
@@ -178,9 +684,8 @@ public class EmployeeControllerTests {
                 .lastName("dagli")
                 .email("ahmet.dagli@gmail.com")
                 .build();
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
-        given(employeeService.updateEmployee(any(Employee.class)))
-                .willAnswer((invocation) -> invocation.getArgument(0));
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), isNull()))
+                .willReturn(Optional.empty());
 
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(put("/api/v1/employees/{id}", employeeId)
@@ -192,12 +697,37 @@ public class EmployeeControllerTests {
                 .andDo(print());
     }
 
+    // negative scenario - If-Match: * on a missing employee
+    // Junit test for update employee REST API
+    @Test
+    public void givenAnyIfMatchAndMissingEmployee_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception {
+        // given - precondition or setup
+        long employeeId = 1L;
+        Employee updatedEmployee = Employee.builder()
+                .firstName("ahmet")
+                .lastName("dagli")
+                .email("ahmet.dagli@gmail.com")
+                .build();
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), isNull()))
+                .willReturn(Optional.empty());
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(put("/api/v1/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "*")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        // then - verify the output
+        response.andExpect(status().isPreconditionFailed())
+                .andDo(print());
+    }
+
     // Junit test for delete employee REST API
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception {
         // given - precondition or setup
         long employeeId = 1L;
-        willDoNothing().given(employeeService).deleteEmployee(employeeId);
+        given(employeeService.deleteEmployee(employeeId)).willReturn(true);
 
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(delete("/api/v1/employees/{id}", employeeId));
@@ -206,4 +736,100 @@ public class EmployeeControllerTests {
         response.andExpect(status().isOk())
                 .andDo(print());
     }
+
+    // Junit test for delete employee REST API with a missing employee
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturn404() throws Exception {
+        // given - precondition or setup
+        long employeeId = 1L;
+        given(employeeService.deleteEmployee(employeeId)).willReturn(false);
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(delete("/api/v1/employees/{id}", employeeId));
+
+        // then - verify the output
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+    // Junit test for import employees REST API
+    @Test
+    public void givenCsvFile_whenImportEmployees_thenReturnImportReport() throws Exception {
+        // given - precondition or setup
+        String csv = "firstName,lastName,email\neren,dagli,eren.dagli@gmail.com\n";
+        EmployeeImportReport report = new EmployeeImportReport("import-1");
+        report.rowRead();
+        report.imported(1);
+        report.completed();
+        given(employeeImportService.importEmployees(eq("import-1"), eq(EmployeeImportService.Format.CSV), any()))
+                .willReturn(report);
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/v1/employees/import")
+                .header("Import-Id", "import-1")
+                .contentType("text/csv")
+                .content(csv));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/v1/employees/import/import-1"))
+                .andExpect(jsonPath("$.status", is("COMPLETED")))
+                .andExpect(jsonPath("$.imported", is(1)));
+    }
+
+    // Junit test for import progress REST API
+    @Test
+    public void givenUnknownImportId_whenGetImport_thenReturnNotFound() throws Exception {
+        // given - precondition or setup
+        given(employeeImportService.getImport("import-1")).willReturn(Optional.empty());
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/v1/employees/import/{id}", "import-1"));
+
+        // then - verify the output
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+    // Junit test for an import id that is not valid in a URI
+    @Test
+    public void givenImportIdWithSpace_whenImportEmployees_thenEncodeLocation() throws Exception {
+        // given - precondition or setup
+        EmployeeImportReport report = new EmployeeImportReport("import 1");
+        report.completed();
+        given(employeeImportService.importEmployees(eq("import 1"), eq(EmployeeImportService.Format.CSV), any()))
+                .willReturn(report);
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/v1/employees/import")
+                .header("Import-Id", "import 1")
+                .contentType("text/csv")
+                .content("eren,dagli,eren.dagli@gmail.com\n"));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/v1/employees/import/import%201"));
+    }
+
+    // Junit test for an import while another one with the same id is running
+    @Test
+    public void givenRunningImport_whenImportEmployees_thenReturnConflict() throws Exception {
+        // given - precondition or setup
+        EmployeeImportReport running = new EmployeeImportReport("import-1");
+        given(employeeImportService.importEmployees(eq("import-1"), eq(EmployeeImportService.Format.CSV), any()))
+                .willReturn(running);
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/v1/employees/import")
+                .header("Import-Id", "import-1")
+                .contentType("text/csv")
+                .content("eren,dagli,eren.dagli@gmail.com\n"));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status", is("RUNNING")));
+    }
 }
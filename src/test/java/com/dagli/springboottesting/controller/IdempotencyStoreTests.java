@@ -0,0 +1,62 @@
+package com.dagli.springboottesting.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IdempotencyStoreTests {
+
+    private final IdempotencyStore idempotencyStore = new IdempotencyStore(100, Duration.ofMinutes(1));
+
+    // JUnit test for a retry while the first request is still running
+    @Test
+    @DisplayName("JUnit test for a retry while the first request is still running")
+    public void givenRunningRequest_whenRetryWithSameKey_thenReturnConflict() {
+        // given - precondition or setup
+        AtomicReference<ResponseEntity<String>> retry = new AtomicReference<>();
+
+        // when - action or the behaviour that we are going test
+        ResponseEntity<String> response = idempotencyStore.execute("key", "request", () -> {
+            retry.set(idempotencyStore.execute("key", "request", () -> ResponseEntity.ok("retry")));
+            return ResponseEntity.ok("first");
+        });
+
+        // then - verify the output
+        assertThat(response.getBody()).isEqualTo("first");
+        assertThat(retry.get().getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    // JUnit test for failed requests
+    @Test
+    @DisplayName("JUnit test for failed requests")
+    public void givenFailedRequests_whenRetryWithSameKey_thenRunAgain() {
+        // given - precondition or setup
+        AtomicInteger runs = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> idempotencyStore.execute("key", "request", () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+        idempotencyStore.execute("key", "request", () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.internalServerError().build();
+        });
+
+        // when - action or the behaviour that we are going test
+        ResponseEntity<String> response = idempotencyStore.execute("key", "request", () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.ok("done");
+        });
+
+        // then - verify the output
+        assertThat(response.getBody()).isEqualTo("done");
+        assertThat(runs).hasValue(3);
+    }
+}
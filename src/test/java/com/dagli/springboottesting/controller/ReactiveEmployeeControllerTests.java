@@ -0,0 +1,350 @@
+package com.dagli.springboottesting.controller;
+
+import com.dagli.springboottesting.dto.EmployeeBatchResult;
+import com.dagli.springboottesting.dto.EmployeePage;
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+@WebFluxTest(ReactiveEmployeeController.class)
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveEmployeeService employeeService;
+
+
+    // Junit test for create employee method REST API
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() {
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("eren")
+                .lastName("dagli")
+                .email("eren.dagli@gmail.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> Mono.just(invocation.getArgument(0)));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/v1/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo(employee.getFirstName())
+                .jsonPath("$.lastName").isEqualTo(employee.getLastName())
+                .jsonPath("$.email").isEqualTo(employee.getEmail());
+    }
+
+
+    // Junit test for get all employees REST API
+    @Test
+    public void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeesList() {
+        // given - precondition or setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build());
+        listOfEmployees.add(Employee.builder().firstName("ahmet").lastName("dagli").email("ahmet.dagli@gmail.com").build());
+        given(employeeService.getAllEmployees()).willReturn(Flux.fromIterable(listOfEmployees));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/v1/employees").exchange();
+
+        // then - verify the output
+        response.expectStatus().isOk()
+                .expectBodyList(Employee.class)
+                .hasSize(listOfEmployees.size());
+    }
+
+    // Junit test for stream employees REST API
+    @Test
+    public void givenListOfEmployees_whenStreamEmployees_thenReturnNdjson() {
+        // given - precondition or setup
+        given(employeeService.getAllEmployees()).willReturn(Flux.just(
+                Employee.builder().firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build(),
+                Employee.builder().firstName("ahmet").lastName("dagli").email("ahmet.dagli@gmail.com").build()));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/v1/employees/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Employee.class)
+                .hasSize(2);
+    }
+
+    // Junit test for stream employees REST API
+    @Test
+    public void givenJsonFormat_whenStreamEmployees_thenReturnJsonArray() {
+        // given - precondition or setup
+        given(employeeService.getAllEmployees()).willReturn(Flux.just(
+                Employee.builder().firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build(),
+                Employee.builder().firstName("ahmet").lastName("dagli").email("ahmet.dagli@gmail.com").build()));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/v1/employees/stream?format=json")
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].firstName").isEqualTo("ahmet");
+    }
+
+    // Junit test for get employees page REST API
+    @Test
+    public void givenMorePages_whenGetEmployeesPage_thenReturnEmployeesAndNextCursor() {
+        // given - precondition or setup
+        List<Employee> employees = List.of(
+                Employee.builder().id(11L).firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build(),
+                Employee.builder().id(12L).firstName("ahmet").lastName("dagli").email("ahmet.dagli@gmail.com").build());
+        given(employeeService.getEmployeesAfter(10L, 2)).willReturn(Mono.just(new EmployeePage(employees, 12L)));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/v1/employees/page?after=10&size=2").exchange();
+
+        // then - verify the output
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.employees.length()").isEqualTo(2)
+                .jsonPath("$.employees[0].id").isEqualTo(11)
+                .jsonPath("$.next").isEqualTo(12);
+    }
+
+    // Junit test for get employees page REST API
+    @Test
+    public void givenTooLargeSize_whenGetEmployeesPage_thenReturn400() {
+        // given - precondition or setup
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/v1/employees/page?size=1001").exchange();
+
+        // then - verify the output
+        response.expectStatus().isBadRequest();
+        verify(employeeService, never()).getEmployeesAfter(any(), anyInt());
+    }
+
+    // Junit test for create employees batch REST API
+    @Test
+    public void givenListOfEmployees_whenCreateEmployees_thenReturnResultPerEmployee() {
+        // given - precondition or setup
+        List<Employee> employees = List.of(
+                Employee.builder().firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build(),
+                Employee.builder().firstName("ahmet").lastName("dagli").email("eren.dagli@gmail.com").build());
+        given(employeeService.saveEmployees(anyList())).willReturn(Mono.just(List.of(
+                EmployeeBatchResult.created(0, 1L),
+                EmployeeBatchResult.failed(1, "Employee already exist with given email:eren.dagli@gmail.com"))));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/v1/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employees)
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(1)
+                .jsonPath("$[1].error").isEqualTo("Employee already exist with given email:eren.dagli@gmail.com");
+    }
+
+    // Junit test for get employee by id REST API
+    @Test
+    public void givenCurrentETag_whenGetEmployeeById_thenReturn304() {
+        // given - precondition or setup
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("eren")
+                .lastName("dagli")
+                .email("eren.dagli@gmail.com")
+                .version(2L)
+                .build();
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Mono.just(employee));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/v1/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"2\"");
+    }
+
+    // positive scenario - valid employee id
+    // Junit test for get employee by id REST API
+    @Test
+    public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject() {
+        // given - precondition or setup
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .firstName("eren")
+                .lastName("dagli")
+                .email("eren.dagli@gmail.com")
+                .build();
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Mono.just(employee));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/v1/employees/{id}", employeeId).exchange();
+
+        // then - verify the output
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo(employee.getFirstName())
+                .jsonPath("$.lastName").isEqualTo(employee.getLastName())
+                .jsonPath("$.email").isEqualTo(employee.getEmail());
+    }
+
+    // negative scenario - not valid employee id
+    // Junit test for get employee by id REST API
+    @Test
+    public void givenEmployeeId_whenGetEmployeeById_thenReturnEmpty() {
+        // given - precondition or setup
+        long employeeId = 1L;
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Mono.empty());
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/v1/employees/{id}", employeeId).exchange();
+
+        // then - verify the output
+        response.expectStatus().isNotFound();
+    }
+
+    // positive scenario - valid employee id
+    // Junit test for update employee REST API
+    @Test
+    public void givenUpdatedEmployee_whenUpdateEmployee_thenReturnUpdateEmployeeObject() {
+        // given - precondition or setup
+        long employeeId = 1L;
+        Employee savedEmployee = Employee.builder()
+                .firstName("eren")
+                .lastName("dagli")
+                .email("eren.dagli@gmail.com")
+                .build();
+        Employee updatedEmployee = Employee.builder()
+                .firstName("ahmet")
+                .lastName("dagli")
+                .email("ahmet.dagli@gmail.com")
+                .build();
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), isNull()))
+                .willAnswer((invocation) -> Mono.just(invocation.getArgument(1)));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.put().uri("/api/v1/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updatedEmployee)
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo(updatedEmployee.getFirstName())
+                .jsonPath("$.lastName").isEqualTo(updatedEmployee.getLastName())
+                .jsonPath("$.email").isEqualTo(updatedEmployee.getEmail());
+    }
+
+    // negative scenario - valid employee id
+    // Junit test for update employee REST API
+    @Test
+    public void givenUpdatedEmployee_whenUpdateEmployee_thenReturnEmpty() {
+        // given - precondition or setup
+        long employeeId = 1L;
+        Employee updatedEmployee = Employee.builder()
+                .firstName("ahmet")
+                .lastName("dagli")
+                .email("ahmet.dagli@gmail.com")
+                .build();
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), isNull())).willReturn(Mono.empty());
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.put().uri("/api/v1/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updatedEmployee)
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isNotFound();
+    }
+
+    // Junit test for update employee REST API
+    @Test
+    public void givenStaleIfMatch_whenUpdateEmployee_thenReturn412() {
+        // given - precondition or setup
+        long employeeId = 1L;
+        Employee updatedEmployee = Employee.builder()
+                .firstName("ahmet")
+                .lastName("dagli")
+                .email("ahmet.dagli@gmail.com")
+                .build();
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), eq(3L)))
+                .willReturn(Mono.error(new ObjectOptimisticLockingFailureException(Employee.class, employeeId)));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.put().uri("/api/v1/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updatedEmployee)
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    // Junit test for delete employee REST API
+    @Test
+    public void givenEmployeeId_whenDeleteEmployee_thenReturn200() {
+        // given - precondition or setup
+        long employeeId = 1L;
+        given(employeeService.deleteEmployee(employeeId)).willReturn(Mono.just(true));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.delete().uri("/api/v1/employees/{id}", employeeId).exchange();
+
+        // then - verify the output
+        response.expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Employee deleted successfully!.");
+    }
+
+    // Junit test for delete employee REST API
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturn404() {
+        // given - precondition or setup
+        long employeeId = 1L;
+        given(employeeService.deleteEmployee(employeeId)).willReturn(Mono.just(false));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.delete().uri("/api/v1/employees/{id}", employeeId).exchange();
+
+        // then - verify the output
+        response.expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,191 @@
+package com.dagli.springboottesting.datasource;
+
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.repository.EmployeeRepository;
+import com.dagli.springboottesting.service.EmployeeService;
+import com.dagli.springboottesting.service.cache.EmployeeCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// primary and replica are two separate H2 databases, so a row tells which one a request read from
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"h2", "replica"})
+public class ReadReplicaRoutingTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    public void setup() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("create table if not exists employees (id bigint primary key, email varchar(255), "
+                + "first_name varchar(255), last_name varchar(255), version bigint not null)");
+        replica.update("delete from employees");
+        employeeRepository.deleteAllInBatch();
+        employeeCache.clear();
+    }
+
+    // JUnit test for read only transactions on the replica
+    @Test
+    @DisplayName("JUnit test for read only transactions on the replica")
+    public void givenEmployeeOnReplica_whenGetAllEmployees_thenReadFromReplica() {
+
+        // given - precondition or setup
+        replica.update("insert into employees (id, email, first_name, last_name, version) values (1, 'eren.dagli@gmail.com', 'eren', 'dagli', 0)");
+
+        // when - action or the behaviour that we are going test
+        List<Employee> employees = employeeService.getAllEmployees();
+
+        // then - verify the output
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("eren.dagli@gmail.com");
+        assertThat(primary.queryForObject("select count(*) from employees", Long.class)).isEqualTo(0);
+    }
+
+    // JUnit test for getEmployeeById from the replica
+    @Test
+    @DisplayName("JUnit test for getEmployeeById not caching what the replica returned")
+    public void givenStaleEmployeeOnReplica_whenGetEmployeeById_thenDoNotCacheIt() {
+
+        // given - precondition or setup
+        Employee employee = employeeService.saveEmployee(Employee.builder().firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build());
+        employeeCache.clear();
+        replica.update("insert into employees (id, email, first_name, last_name, version) values (?, 'eren.dagli@gmail.com', 'ahmet', 'dagli', 0)",
+                employee.getId());
+
+        // when - action or the behaviour that we are going test
+        Employee fromReplica = employeeService.getEmployeeById(employee.getId()).get();
+        ReadYourWrites.begin(true, () -> { });
+        Employee fromPrimary;
+        try {
+            fromPrimary = employeeService.getEmployeeById(employee.getId()).get();
+        } finally {
+            ReadYourWrites.end();
+        }
+
+        // then - verify the output
+        assertThat(fromReplica.getFirstName()).isEqualTo("ahmet");
+        assertThat(fromPrimary.getFirstName()).isEqualTo("eren");
+        // the row read from the primary is the one cached for everybody
+        assertThat(employeeCache.size()).isEqualTo(1);
+        assertThat(employeeService.getEmployeeById(employee.getId()).get().getFirstName()).isEqualTo("eren");
+    }
+
+    // JUnit test for writes on the primary
+    @Test
+    @DisplayName("JUnit test for writes on the primary")
+    public void givenEmployeeObject_whenSaveEmployee_thenWriteToPrimary() {
+
+        // given - precondition or setup
+        Employee employee = Employee.builder().firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build();
+
+        // when - action or the behaviour that we are going test
+        employeeService.saveEmployee(employee);
+
+        // then - verify the output
+        assertThat(primary.queryForObject("select count(*) from employees", Long.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from employees", Long.class)).isEqualTo(0);
+        assertThat(employeeRepository.findByEmail("eren.dagli@gmail.com")).isEmpty();
+    }
+
+    // JUnit test for read your writes within a request
+    @Test
+    @DisplayName("JUnit test for read your writes within a request")
+    public void givenWriteInRequest_whenGetAllEmployees_thenReadFromPrimary() {
+
+        // given - precondition or setup
+        ReadYourWrites.begin(false, () -> { });
+        try {
+            employeeService.saveEmployee(Employee.builder().firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build());
+
+            // when - action or the behaviour that we are going test
+            List<Employee> employees = employeeService.getAllEmployees();
+
+            // then - verify the output
+            assertThat(employees).extracting(Employee::getEmail).containsExactly("eren.dagli@gmail.com");
+        } finally {
+            ReadYourWrites.end();
+        }
+    }
+
+    // JUnit test for read your writes across requests
+    @Test
+    @DisplayName("JUnit test for read your writes across requests")
+    public void givenCreatedEmployee_whenGetAllEmployeesWithCookie_thenReadFromPrimary() throws Exception {
+
+        // given - precondition or setup
+        Employee employee = Employee.builder().firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build();
+        MvcResult created = mockMvc.perform(post("/api/v1/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE_NAME))
+                .andReturn();
+        Cookie primaryUntil = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+
+        // when - action or the behaviour that we are going test
+        // then - verify the output
+        // the list is streamed from an async thread, which has to stay on the primary as well
+        MvcResult pinned = mockMvc.perform(get("/api/v1/employees").cookie(primaryUntil))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pinned))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)));
+        MvcResult unpinned = mockMvc.perform(get("/api/v1/employees"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(unpinned))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(0)));
+    }
+}
@@ -0,0 +1,122 @@
+package com.dagli.springboottesting.integration;
+
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.repository.EmployeeRepository;
+import com.dagli.springboottesting.startup.CheckpointRestoreResource;
+import com.dagli.springboottesting.startup.EmployeeApiWarmup;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// the CRaC callbacks are called directly, a checkpoint itself needs a CRaC JDK.
+// On any other JVM the warm-up's checkpoint is skipped and the application keeps running.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee.warmup.enabled=true",
+        "employee.warmup.iterations=3",
+        "employee.warmup.then=checkpoint",
+        "employee.checkpoint.enabled=true",
+        "employee.checkpoint.drain-timeout=200ms"})
+@ActiveProfiles("h2")
+public class EmployeeCheckpointITests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeApiWarmup employeeApiWarmup;
+
+    @Autowired
+    private CheckpointRestoreResource checkpointRestoreResource;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @AfterEach
+    public void tearDown() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    // JUnit test for the warm-up before readiness
+    @Test
+    @DisplayName("JUnit test for the warm-up before readiness")
+    public void givenWarmupEnabled_whenApplicationReady_thenReadEndpointsWereCalled() throws Exception {
+        // given - precondition or setup
+        // the table was empty during the warm-up: page, summary, search and a missing id per round
+
+        // when - action or the behaviour that we are going test
+        HttpResponse<String> response = get("/api/v1/employees/page?size=1");
+
+        // then - verify the output
+        assertThat(employeeApiWarmup.getRequests()).isEqualTo(3 * 4);
+        assertThat(response.statusCode()).isEqualTo(200);
+    }
+
+    // JUnit test for beforeCheckpoint and afterRestore
+    @Test
+    @DisplayName("JUnit test for beforeCheckpoint and afterRestore")
+    public void givenOpenConnections_whenCheckpointAndRestore_thenSocketAndPoolAreClosedAndReopened() throws Exception {
+        // given - precondition or setup
+        employeeRepository.save(Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build());
+        assertThat(dataSource.getHikariPoolMXBean().getTotalConnections()).isPositive();
+
+        // when - action or the behaviour that we are going test
+        checkpointRestoreResource.beforeCheckpoint(null);
+
+        // then - verify the output
+        assertThat(dataSource.getHikariPoolMXBean().getTotalConnections()).isZero();
+        assertThatThrownBy(() -> new Socket("localhost", port).close()).isInstanceOf(ConnectException.class);
+
+        checkpointRestoreResource.afterRestore(null);
+        HttpResponse<String> response = get("/api/v1/employees/page?size=1");
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).contains("ramesh@gmail.com");
+    }
+
+    // JUnit test for beforeCheckpoint with a connection in use
+    @Test
+    @DisplayName("JUnit test for beforeCheckpoint with a connection in use")
+    public void givenConnectionInUse_whenCheckpoint_thenFailAndKeepServing() throws Exception {
+        // given - precondition or setup
+        Connection connection = dataSource.getConnection();
+
+        // when - action or the behaviour that we are going test
+        try {
+            assertThatThrownBy(() -> checkpointRestoreResource.beforeCheckpoint(null))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("connections in use");
+        } finally {
+            connection.close();
+            checkpointRestoreResource.afterRestore(null);
+        }
+
+        // then - verify the output
+        assertThat(get("/api/v1/employees/page?size=1").statusCode()).isEqualTo(200);
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -2,20 +2,26 @@ package com.dagli.springboottesting.integration;
 
 import com.dagli.springboottesting.entity.Employee;
 import com.dagli.springboottesting.repository.EmployeeRepository;
+import com.dagli.springboottesting.service.cache.EmployeeCache;
+import com.dagli.springboottesting.support.SqlStatementLimit;
+import com.dagli.springboottesting.support.SqlStatements;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
@@ -23,7 +29,9 @@ import static org.mockito.BDDMockito.willDoNothing;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -36,16 +44,22 @@ public class EmployeeControllerITests {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private EmployeeCache employeeCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     @BeforeEach
     void setup() {
         employeeRepository.deleteAll();
+        // deleteAll goes around the service, so drop what earlier tests cached
+        employeeCache.clear();
     }
 
     // Junit test for create employee method REST API
     @Test
+    @SqlStatementLimit(insert = 1, select = 1, update = 0)
     public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() throws Exception {
         // given - precondition or setup
         Employee employee = Employee.builder()
@@ -70,7 +84,31 @@ public class EmployeeControllerITests {
                         is(employee.getEmail())));
     }
 
+    // Junit test for batch create employees REST API
+    @Test
+    public void givenListOfEmployees_whenCreateEmployees_thenSaveNewEmployeesOnly() throws Exception {
+        // given - precondition or setup
+        employeeRepository.save(Employee.builder().firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build());
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").build());
+        listOfEmployees.add(Employee.builder().firstName("ahmet").lastName("dagli").email("ahmet.dagli@gmail.com").build());
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/v1/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(listOfEmployees)));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].error", is("Employee already exist with given email:eren.dagli@gmail.com")))
+                .andExpect(jsonPath("$[1].error").doesNotExist());
+        assertThat(employeeRepository.count()).isEqualTo(2);
+    }
+
     // Junit test for get all employees REST API
+    // no @SqlStatementLimit: the list is streamed on the MVC async thread, where the test does not count statements
     @Test
     public void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeesList() throws Exception {
         // given - precondition or setup
@@ -80,10 +118,13 @@ public class EmployeeControllerITests {
         employeeRepository.saveAll(listOfEmployees);
 
         // when - action or the behaviour that we are going test
-        ResultActions response = mockMvc.perform(get("/api/v1/employees"));
+        MvcResult result = mockMvc.perform(get("/api/v1/employees"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
         // then - verify the output
-        response.andExpect(status().isOk())
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
                 .andDo(print())
                 .andExpect(jsonPath("$.size()",
                         is(listOfEmployees.size())));
@@ -92,7 +133,8 @@ public class EmployeeControllerITests {
     // positive scenario - valid employee id
     // Junit test for get employee by id REST API
     @Test
-    public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject() throws Exception {
+    @SqlStatementLimit(total = 1)
+    public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject(SqlStatements statements) throws Exception {
         // given - precondition or setup
         Employee employee = Employee.builder()
                 .firstName("eren")
@@ -100,6 +142,7 @@ public class EmployeeControllerITests {
                 .email("eren.dagli@gmail.com")
                 .build();
         employeeRepository.save(employee);
+        statements.reset();
 
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(get("/api/v1/employees/{id}", employee.getId()));
@@ -135,7 +178,9 @@ public class EmployeeControllerITests {
     // positive scenario - valid employee id
     // Junit test for update employee REST API
     @Test
-    public void givenUpdatedEmployee_whenUpdateEmployee_thenReturnUpdateEmployeeObject() throws Exception {
+    // without If-Match the new version is read back by id, so a client can send it as If-Match next time
+    @SqlStatementLimit(update = 1, select = 1, total = 2)
+    public void givenUpdatedEmployee_whenUpdateEmployee_thenReturnUpdateEmployeeObject(SqlStatements statements) throws Exception {
         // given - precondition or setup
         long employeeId = 1L;
         Employee savedEmployee = Employee.builder()
@@ -149,7 +194,7 @@ public class EmployeeControllerITests {
                 .lastName("dagli")
                 .email("ahmet.dagli@gmail.com")
                 .build();
-
+        statements.reset();
 
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(put("/api/v1/employees/{id}", savedEmployee.getId())
@@ -161,7 +206,9 @@ public class EmployeeControllerITests {
                 .andDo(print())
                 .andExpect(jsonPath("$.firstName", is(updatedEmployee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(updatedEmployee.getLastName())))
-                .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())));
+                .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())))
+                .andExpect(jsonPath("$.version", is(1)))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
 
     }
 
@@ -197,7 +244,8 @@ public class EmployeeControllerITests {
 
     // Junit test for delete employee REST API
     @Test
-    public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception {
+    @SqlStatementLimit(delete = 1, total = 1)
+    public void givenEmployeeId_whenDeleteEmployee_thenReturn200(SqlStatements statements) throws Exception {
         // given - precondition or setup
         Employee savedEmployee = Employee.builder()
                 .firstName("eren")
@@ -205,6 +253,7 @@ public class EmployeeControllerITests {
                 .email("eren.dagli@gmail.com")
                 .build();
         employeeRepository.save(savedEmployee);
+        statements.reset();
 
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(delete("/api/v1/employees/{id}", savedEmployee.getId()));
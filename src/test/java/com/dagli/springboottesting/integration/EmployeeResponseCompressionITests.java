@@ -0,0 +1,118 @@
+package com.dagli.springboottesting.integration;
+
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.repository.EmployeeRepository;
+import com.dagli.springboottesting.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// server.compression only happens in a real Tomcat, MockMvc does not compress
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class EmployeeResponseCompressionITests {
+
+    private static final int EMPLOYEE_COUNT = 1200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void setup() {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEE_COUNT; i++) {
+            employees.add(Employee.builder().firstName("first" + i).lastName("last" + i).email("employee" + i + "@ems.com").build());
+            if(employees.size() == 600) {
+                employeeService.saveEmployees(employees);
+                employees = new ArrayList<>();
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    // JUnit test for the streamed employee list with gzip
+    @Test
+    @DisplayName("JUnit test for the streamed employee list with gzip")
+    public void givenAcceptEncodingGzip_whenGetAllEmployees_thenReturnCompressedJsonArray() throws Exception {
+        // given - precondition or setup
+        HttpResponse<byte[]> identity = get("", "identity");
+
+        // when - action or the behaviour that we are going test
+        HttpResponse<byte[]> gzip = get("", "gzip");
+
+        // then - verify the output
+        assertThat(identity.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(gzip.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        byte[] json = gunzip(gzip.body());
+        assertThat(json).isEqualTo(identity.body());
+        assertThat(objectMapper.readValue(json, Employee[].class)).hasSize(EMPLOYEE_COUNT);
+        // flushed per chunk, not per employee, so the deflater keeps its window
+        assertThat(gzip.body().length).isLessThan(identity.body().length / 5);
+    }
+
+    // JUnit test for the export, which compresses by itself
+    @Test
+    @DisplayName("JUnit test for the export compressed only once")
+    public void givenAcceptEncodingGzip_whenExportEmployees_thenCompressOnce() throws Exception {
+        // given - precondition or setup
+        String acceptEncoding = "gzip";
+
+        // when - action or the behaviour that we are going test
+        HttpResponse<byte[]> response = get("/export", acceptEncoding);
+
+        // then - verify the output
+        assertThat(response.headers().allValues("Content-Encoding")).containsExactly("gzip");
+        String csv = new String(gunzip(response.body()), StandardCharsets.UTF_8);
+        assertThat(csv).startsWith("id,firstName,lastName,email,version\n");
+        assertThat(csv.lines()).hasSize(EMPLOYEE_COUNT + 1);
+    }
+
+    private HttpResponse<byte[]> get(String path, String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/employees" + path))
+                .header("Accept-Encoding", acceptEncoding)
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response;
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return input.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.dagli.springboottesting.integration;
+
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.repository.EmployeeRepository;
+import com.dagli.springboottesting.service.EmployeeService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+
+// the streamed lists run after the controller returned, on the async thread of a real Tomcat
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class EmployeeStreamingITests {
+
+    private static final int EMPLOYEE_COUNT = 1200;
+    // EmployeeController.STREAM_CHUNK_SIZE, plus the extra row read to find the next page
+    private static final int CHUNK_ROWS = 501;
+
+    @LocalServerPort
+    private int port;
+
+    @SpyBean
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    // entities in the persistence context of each chunk's transaction, after the chunk was read
+    private final List<Integer> managedEmployees = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEE_COUNT; i++) {
+            employees.add(Employee.builder().firstName("first" + i).lastName("last" + i).email("employee" + i + "@ems.com").build());
+        }
+        employeeService.saveEmployees(employees);
+
+        doAnswer(invocation -> {
+            Object page = invocation.callRealMethod();
+            managedEmployees.add(entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+            return page;
+        }).when(employeeService).getEmployeesAfter(any(), anyInt());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    // JUnit test for the persistence context while the employee list is streamed
+    @Test
+    @DisplayName("JUnit test for the streamed employee list not keeping the chunks it wrote")
+    public void givenEmployeesList_whenStreamEmployees_thenPersistenceContextDoesNotGrow() throws Exception {
+        // given - precondition or setup
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/employees/stream")).build();
+
+        // when - action or the behaviour that we are going test
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        // then - verify the output
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body().lines()).hasSize(EMPLOYEE_COUNT);
+        assertThat(managedEmployees).hasSize(3).allSatisfy(count -> assertThat(count).isLessThanOrEqualTo(CHUNK_ROWS));
+    }
+
+    // JUnit test for the persistence context while the JSON array is streamed
+    @Test
+    @DisplayName("JUnit test for the streamed JSON array not keeping the chunks it wrote")
+    public void givenEmployeesList_whenGetAllEmployees_thenPersistenceContextDoesNotGrow() throws Exception {
+        // given - precondition or setup
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/employees")).build();
+
+        // when - action or the behaviour that we are going test
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        // then - verify the output
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(managedEmployees).hasSize(3).allSatisfy(count -> assertThat(count).isLessThanOrEqualTo(CHUNK_ROWS));
+    }
+}
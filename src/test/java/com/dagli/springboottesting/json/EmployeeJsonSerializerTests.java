@@ -0,0 +1,102 @@
+package com.dagli.springboottesting.json;
+
+import com.dagli.springboottesting.dto.EmployeePage;
+import com.dagli.springboottesting.entity.Employee;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeJsonSerializerTests {
+
+    private static final List<Employee> EMPLOYEES = List.of(
+            Employee.builder().id(1L).firstName("eren").lastName("dagli").email("eren.dagli@gmail.com").version(0L).build(),
+            Employee.builder().id(Long.MAX_VALUE).firstName("Şükrü \"the\" Öztürk").lastName("back\\slash\ttab\u0001")
+                    .email("</script>@ems.com").version(Long.MIN_VALUE).build(),
+            Employee.builder().id(0L).firstName("").lastName("emoji 😀 and  ").email(null).version(null).build(),
+            Employee.builder().build());
+
+    // JUnit test for byte-for-byte compatibility
+    @ParameterizedTest
+    @EnumSource(value = JsonInclude.Include.class, names = {"ALWAYS", "NON_NULL", "NON_ABSENT", "NON_EMPTY", "NON_DEFAULT"})
+    @DisplayName("JUnit test for byte-for-byte compatibility with the reflective serializer")
+    public void givenEmployees_whenSerialize_thenWriteTheSameBytesAsTheBeanSerializer(JsonInclude.Include inclusion) throws Exception {
+        // given - precondition or setup
+        ObjectMapper reflective = Jackson2ObjectMapperBuilder.json().serializationInclusion(inclusion).build();
+        ObjectMapper specialized = Jackson2ObjectMapperBuilder.json().serializationInclusion(inclusion)
+                .modulesToInstall(new EmployeeJsonModule()).build();
+        EmployeePage page = new EmployeePage(EMPLOYEES, 42L);
+
+        // when - action or the behaviour that we are going test
+        byte[] expectedList = reflective.writeValueAsBytes(EMPLOYEES);
+        byte[] actualList = specialized.writeValueAsBytes(EMPLOYEES);
+
+        // then - verify the output
+        assertThat(actualList).isEqualTo(expectedList);
+        assertThat(specialized.writeValueAsBytes(page)).isEqualTo(reflective.writeValueAsBytes(page));
+        for (Employee employee : EMPLOYEES) {
+            assertThat(specialized.writeValueAsString(employee)).isEqualTo(reflective.writeValueAsString(employee));
+        }
+        boolean supported = inclusion != JsonInclude.Include.NON_EMPTY && inclusion != JsonInclude.Include.NON_DEFAULT;
+        assertThat(usesSpecializedSerializer(specialized)).isEqualTo(supported);
+    }
+
+    // JUnit test for configurations the specialized serializer does not cover
+    @Test
+    @DisplayName("JUnit test for a naming strategy")
+    public void givenSnakeCaseNaming_whenSerialize_thenKeepTheBeanSerializer() throws Exception {
+        // given - precondition or setup
+        ObjectMapper reflective = Jackson2ObjectMapperBuilder.json()
+                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE).build();
+        ObjectMapper specialized = Jackson2ObjectMapperBuilder.json()
+                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .modulesToInstall(new EmployeeJsonModule()).build();
+
+        // when - action or the behaviour that we are going test
+        String json = specialized.writeValueAsString(EMPLOYEES.get(0));
+
+        // then - verify the output
+        assertThat(json).isEqualTo(reflective.writeValueAsString(EMPLOYEES.get(0))).contains("\"first_name\"");
+        assertThat(usesSpecializedSerializer(specialized)).isFalse();
+    }
+
+    // JUnit test for streaming writes
+    @Test
+    @DisplayName("JUnit test for the generator used by the streaming endpoints")
+    public void givenGenerator_whenWriteObject_thenUseTheSpecializedSerializer() throws Exception {
+        // given - precondition or setup
+        ObjectMapper specialized = Jackson2ObjectMapperBuilder.json().modulesToInstall(new EmployeeJsonModule()).build();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // when - action or the behaviour that we are going test
+        try (var generator = specialized.getFactory().createGenerator(output)) {
+            generator.setRootValueSeparator(null);
+            for (Employee employee : EMPLOYEES) {
+                generator.writeObject(employee);
+                generator.writeRaw('\n');
+            }
+        }
+
+        // then - verify the output
+        List<String> lines = Arrays.asList(output.toString(StandardCharsets.UTF_8).split("\n"));
+        assertThat(lines).hasSize(EMPLOYEES.size());
+        assertThat(lines.get(0)).isEqualTo("{\"id\":1,\"firstName\":\"eren\",\"lastName\":\"dagli\",\"email\":\"eren.dagli@gmail.com\",\"version\":0}");
+    }
+
+    private static boolean usesSpecializedSerializer(ObjectMapper objectMapper) throws Exception {
+        JsonSerializer<?> serializer = objectMapper.getSerializerProviderInstance().findValueSerializer(Employee.class);
+        return serializer instanceof EmployeeJsonSerializer;
+    }
+}
@@ -0,0 +1,65 @@
+package com.dagli.springboottesting.metrics;
+
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.service.cache.EmployeeCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeCacheMetricsTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EmployeeCache employeeCache;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        employeeCache = new EmployeeCache(2, Duration.ofMinutes(10));
+        new EmployeeCacheMetrics(employeeCache).bindTo(meterRegistry);
+    }
+
+    // JUnit test for employee cache metrics
+    @Test
+    @DisplayName("JUnit test for employee cache metrics")
+    public void givenCacheLookups_whenReadMeters_thenReportHitsMissesEvictionsAndSize() {
+
+        // given - precondition or setup
+        employeeCache.get(1L);
+        for (long id = 1; id <= 3; id++) {
+            employeeCache.put(employee(id), employeeCache.stamp());
+        }
+        employeeCache.get(3L);
+        employeeCache.get(2L);
+        employeeCache.putPending(employee(4L));
+
+        // when - action or the behaviour that we are going test
+        double hits = meterRegistry.get("employee.cache.hits").functionCounter().count();
+        double misses = meterRegistry.get("employee.cache.misses").functionCounter().count();
+        double evictions = meterRegistry.get("employee.cache.evictions").functionCounter().count();
+        double size = meterRegistry.get("employee.cache.size").gauge().value();
+        double pending = meterRegistry.get("employee.cache.pending").gauge().value();
+
+        // then - verify the output
+        assertThat(hits).isEqualTo(2);
+        assertThat(misses).isEqualTo(1);
+        // employee 1, the eldest, made room for employee 3
+        assertThat(evictions).isEqualTo(1);
+        assertThat(size).isEqualTo(2);
+        assertThat(pending).isEqualTo(1);
+    }
+
+    private static Employee employee(long id) {
+        return Employee.builder()
+                .id(id)
+                .firstName("eren" + id)
+                .lastName("dagli")
+                .email("eren" + id + ".dagli@gmail.com")
+                .version(0L)
+                .build();
+    }
+}
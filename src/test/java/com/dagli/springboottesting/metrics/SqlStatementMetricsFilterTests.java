@@ -0,0 +1,75 @@
+package com.dagli.springboottesting.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlStatementMetricsFilterTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SqlStatementMetricsFilter filter;
+    private SqlStatementCounter statementCounter;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new SqlStatementMetricsFilter(meterRegistry);
+        statementCounter = new SqlStatementCounter();
+    }
+
+    // JUnit test for sql statements per request metric
+    @Test
+    @DisplayName("JUnit test for sql statements per request metric")
+    public void givenRequestRunningStatements_whenFilter_thenRecordStatementCount() throws Exception {
+
+        // given - precondition or setup
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/employees/1");
+
+        // when - action or the behaviour that we are going test
+        filter.doFilter(request, new MockHttpServletResponse(), (servletRequest, servletResponse) -> {
+            servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/employees/{id}");
+            statementCounter.inspect("select e1_0.id from employees e1_0 where e1_0.id=?");
+            statementCounter.inspect("/* comment */ update employees set first_name=? where id=?");
+        });
+        statementCounter.inspect("select 1");
+
+        // then - verify the output
+        DistributionSummary summary = meterRegistry.get(SqlStatementMetricsFilter.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/api/v1/employees/{id}")
+                .summary();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(2);
+    }
+
+    // JUnit test for nested statement counter scopes
+    @Test
+    @DisplayName("JUnit test for nested statement counter scopes")
+    public void givenNestedScopes_whenInspect_thenCountStatementsByType() {
+
+        // given - precondition or setup
+        SqlStatementCounter.Scope outer = SqlStatementCounter.open();
+        statementCounter.inspect("insert into employees (email,first_name,last_name,version,id) values (?,?,?,?,?)");
+
+        // when - action or the behaviour that we are going test
+        SqlStatementCounter.Scope inner = SqlStatementCounter.open();
+        statementCounter.inspect("select e1_0.id from employees e1_0");
+        statementCounter.inspect("delete from employees where id=?");
+        inner.close();
+        outer.close();
+
+        // then - verify the output
+        assertThat(inner.total()).isEqualTo(2);
+        assertThat(inner.count(SqlStatementCounter.Type.INSERT)).isEqualTo(0);
+        assertThat(inner.count(SqlStatementCounter.Type.DELETE)).isEqualTo(1);
+        assertThat(outer.total()).isEqualTo(3);
+        assertThat(outer.count(SqlStatementCounter.Type.INSERT)).isEqualTo(1);
+    }
+}
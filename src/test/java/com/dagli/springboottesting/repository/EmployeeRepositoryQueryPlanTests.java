@@ -0,0 +1,98 @@
+package com.dagli.springboottesting.repository;
+
+import com.dagli.springboottesting.entity.Employee;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// runs each first name + last name lookup, captures the SQL Hibernate sends and checks its EXPLAIN plan on H2
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.dagli.springboottesting.repository.EmployeeRepositoryQueryPlanTests$CapturingStatementInspector")
+public class EmployeeRepositoryQueryPlanTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        employeeRepository.saveAllAndFlush(IntStream.range(0, 100)
+                .mapToObj(i -> Employee.builder()
+                        .firstName("first" + i)
+                        .lastName("last" + i)
+                        .email("employee" + i + "@ems.com")
+                        .build())
+                .toList());
+        CapturingStatementInspector.STATEMENTS.clear();
+    }
+
+    static Stream<Arguments> nameLookups() {
+        return Stream.of(
+                Arguments.of("findByJPQL", (Consumer<EmployeeRepository>) repository -> repository.findByJPQL("first1", "last1")),
+                Arguments.of("findByJPQLNamedParams", (Consumer<EmployeeRepository>) repository -> repository.findByJPQLNamedParams("first1", "last1")),
+                Arguments.of("findByNativeSql", (Consumer<EmployeeRepository>) repository -> repository.findByNativeSql("first1", "last1")),
+                Arguments.of("findByNativeSqlNamedParams", (Consumer<EmployeeRepository>) repository -> repository.findByNativeSqlNamedParams("first1", "last1")),
+                Arguments.of("findByFirstNameAndLastName", (Consumer<EmployeeRepository>) repository -> repository.findByFirstNameAndLastName("first1", "last1")));
+    }
+
+    // JUnit test for first name + last name lookup query plans
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("nameLookups")
+    @DisplayName("JUnit test for first name + last name lookup query plans")
+    public void givenNameLookup_whenExplain_thenUseLastFirstIndex(String query, Consumer<EmployeeRepository> lookup) {
+
+        // given - precondition or setup
+        lookup.accept(employeeRepository);
+        assertThat(CapturingStatementInspector.STATEMENTS).as(query).hasSize(1);
+        String sql = CapturingStatementInspector.STATEMENTS.get(0);
+
+        // when - action or the behaviour that we are going test
+        String plan = explain(sql);
+
+        // then - verify the output
+        assertThat(plan).as(query + ": " + plan)
+                .doesNotContainIgnoringCase("tableScan")
+                .containsIgnoringCase("idx_employees_last_first");
+    }
+
+    // the plan only depends on the statement, so any value works for the bind parameters
+    private String explain(String sql) {
+        Object[] parameters = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+        Arrays.fill(parameters, "first1");
+        return jdbcTemplate.queryForObject("explain " + sql, String.class, parameters);
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -1,18 +1,29 @@
 package com.dagli.springboottesting.repository;
 
+import com.dagli.springboottesting.dto.EmployeeSummary;
 import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.support.SqlStatementLimit;
+import com.dagli.springboottesting.support.SqlStatements;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
 public class EmployeeRepositoryTests {
 
     @Autowired
@@ -44,6 +55,60 @@ public class EmployeeRepositoryTests {
         assertThat(savedEmployee.getId()).isGreaterThan(0);
     }
 
+    // JUnit test for statements run by save employee operation
+    @Test
+    @SqlStatementLimit(insert = 1, select = 0)
+    @DisplayName("JUnit test for statements run by save employee operation")
+    public void givenEmployeeObject_whenSaveAndFlush_thenRunSingleInsert() {
+
+        // given - precondition or setup
+
+        // when - action or the behaviour that we are going test
+        Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+
+        // then - verify the output
+        assertThat(savedEmployee.getId()).isGreaterThan(0);
+    }
+
+    // JUnit test for statements run by find by email operation
+    @Test
+    @SqlStatementLimit(select = 1, total = 1)
+    @DisplayName("JUnit test for statements run by find by email operation")
+    public void givenSavedEmployee_whenFindByEmail_thenRunSingleSelect(SqlStatements statements) {
+
+        // given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        statements.reset();
+
+        // when - action or the behaviour that we are going test
+        Optional<Employee> foundEmployee = employeeRepository.findByEmail(employee.getEmail());
+
+        // then - verify the output
+        assertThat(foundEmployee).isPresent();
+    }
+
+    // JUnit test for unique email index
+    @Test
+    @DisplayName("JUnit test for unique email index")
+    public void givenExistingEmail_whenSaveAndFlush_thenThrowDataIntegrityViolation() {
+
+        // given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        Employee employee1 = Employee.builder()
+                .firstName("ahmet")
+                .lastName("dagli")
+                .email(employee.getEmail())
+                .build();
+
+        // when - action or the behaviour that we are going test
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> employeeRepository.saveAndFlush(employee1));
+
+        // then - verify the output
+        // the service tells a duplicate email from other violations by the index name
+        assertThat(exception.getMostSpecificCause().getMessage()).containsIgnoringCase(Employee.EMAIL_CONSTRAINT);
+    }
+
     // Junit test for get all employees operation
     @DisplayName("Junit test for get all employees operation")
     @Test
@@ -68,6 +133,48 @@ public class EmployeeRepositoryTests {
     }
 
 
+    // Junit test for keyset pagination operation
+    @DisplayName("Junit test for keyset pagination operation")
+    @Test
+    public void givenEmployeesList_whenFindByIdGreaterThan_thenReturnNextPage() {
+
+        // given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("ahmet")
+                .lastName("dagli")
+                .email("ahmet.dagli@gmail.com")
+                .build();
+
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+
+        // when - action or the behaviour that we are going test
+        List<Employee> employeeList = employeeRepository.findByIdGreaterThanOrderByIdAsc(employee.getId(), PageRequest.of(0, 10));
+
+        // then - verify the output
+        assertThat(employeeList).hasSize(1);
+        assertThat(employeeList.get(0).getEmail()).isEqualTo("ahmet.dagli@gmail.com");
+    }
+
+
+    // Junit test for employee summaries projection
+    @DisplayName("Junit test for employee summaries projection")
+    @Test
+    public void givenEmployeeObject_whenFindAllSummaries_thenReturnSummaryWithoutManagedEntity() {
+
+        // given - precondition or setup
+        employeeRepository.save(employee);
+
+        // when - action or the behaviour that we are going test
+        List<EmployeeSummary> summaries = employeeRepository.findAllSummaries();
+
+        // then - verify the output
+        assertThat(summaries).hasSize(1);
+        assertThat(summaries.get(0).getId()).isEqualTo(employee.getId());
+        assertThat(summaries.get(0).getEmail()).isEqualTo("eren.dagli@gmail.com");
+    }
+
+
     // Junit test for get employee by id operation
     @DisplayName("Junit test for get employee by id operation")
     @Test
@@ -123,6 +230,86 @@ public class EmployeeRepositoryTests {
         assertThat(updatedEmployee.getFirstName()).isEqualTo("ahmet");
     }
 
+    // Junit test for version lookup operation
+    @DisplayName("Junit test for version lookup operation")
+    @Test
+    public void givenUpdatedEmployee_whenFindVersionById_thenReturnIncrementedVersion() {
+
+        // given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        Long initialVersion = employee.getVersion();
+
+        // when - action or the behaviour that we are going test
+        employee.setFirstName("ahmet");
+        employeeRepository.saveAndFlush(employee);
+        Optional<Long> version = employeeRepository.findVersionById(employee.getId());
+
+        // then - verify the output
+        assertThat(initialVersion).isEqualTo(0L);
+        assertThat(version).contains(1L);
+    }
+
+    // Junit test for single statement update operation
+    @DisplayName("Junit test for single statement update operation")
+    @Test
+    public void givenEmployeeObject_whenUpdateEmployeeIfVersion_thenUpdateOnlyMatchingVersion() {
+
+        // given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        // when - action or the behaviour that we are going test
+        int staleRows = employeeRepository.updateEmployeeIfVersion(employee.getId(), "ahmet", "dagli", "ahmet.dagli@gmail.com", 7L);
+        int updatedRows = employeeRepository.updateEmployeeIfVersion(employee.getId(), "ahmet", "dagli", "ahmet.dagli@gmail.com", 0L);
+        Employee updatedEmployee = employeeRepository.findById(employee.getId()).get();
+
+        // then - verify the output
+        assertThat(staleRows).isEqualTo(0);
+        assertThat(updatedRows).isEqualTo(1);
+        assertThat(updatedEmployee.getFirstName()).isEqualTo("ahmet");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(1L);
+    }
+
+    // Junit test for single statement delete operation
+    @DisplayName("Junit test for single statement delete operation")
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenReturnAffectedRows() {
+
+        // given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        // when - action or the behaviour that we are going test
+        int deletedRows = employeeRepository.deleteEmployeeById(employee.getId());
+        int missingRows = employeeRepository.deleteEmployeeById(employee.getId());
+
+        // then - verify the output
+        assertThat(deletedRows).isEqualTo(1);
+        assertThat(missingRows).isEqualTo(0);
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    }
+
+    // JUnit test for stream all employees operation
+    @Test
+    @DisplayName("JUnit test for stream all employees operation")
+    public void givenEmployeesList_whenStreamAll_thenStreamEmployeesInIdOrder() {
+
+        // given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("ahmet")
+                .lastName("dagli")
+                .email("ahmet.dagli@gmail.com")
+                .build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee1));
+
+        // when - action or the behaviour that we are going test
+        List<Long> ids;
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            ids = employees.map(Employee::getId).toList();
+        }
+
+        // then - verify the output
+        assertThat(ids).containsExactly(employee.getId(), employee1.getId());
+    }
+
     // Junit test for delete employee operation
     @DisplayName("Junit test for delete employee operation")
     @Test
@@ -0,0 +1,126 @@
+package com.dagli.springboottesting.repository;
+
+import com.dagli.springboottesting.entity.Employee;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// a database created by the original application (ddl-auto=update, IDENTITY ids, no version column)
+// that already has rows: Flyway baselines it at V1 and V2 brings it to the current mapping.
+// The test properties are read like a .properties file, which takes one level of backslashes off the URL.
+@DataJpaTest(properties = "spring.datasource.url=" + EmployeeSchemaMigrationTests.ESCAPED_URL)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+public class EmployeeSchemaMigrationTests {
+
+    static final String URL = "jdbc:h2:mem:legacy;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+            + "INIT=CREATE SCHEMA IF NOT EXISTS ems\\;SET SCHEMA ems";
+    static final String ESCAPED_URL = "jdbc:h2:mem:legacy;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+            + "INIT=CREATE SCHEMA IF NOT EXISTS ems\\\\;SET SCHEMA ems";
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private Flyway flyway;
+
+    // runs before the application context, so Flyway finds the old schema
+    @BeforeAll
+    public static void createBaselineSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table employees (id bigint not null auto_increment, email varchar(255), "
+                    + "first_name varchar(255), last_name varchar(255), primary key (id))");
+            statement.execute("insert into employees (id, email, first_name, last_name) values "
+                    + "(1, 'ramesh@gmail.com', 'Ramesh', 'Fadatare'), (1000, 'john@gmail.com', 'John', 'Cena')");
+        }
+    }
+
+    // JUnit test for migrating the baseline schema
+    @Test
+    @DisplayName("JUnit test for migrating the baseline schema")
+    public void givenBaselineSchema_whenMigrated_thenExistingEmployeesHaveVersionZero() {
+
+        // given - precondition or setup
+
+        // when - action or the behaviour that we are going test
+        Employee employee = employeeRepository.findByEmail("john@gmail.com").get();
+
+        // then - verify the output
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("2");
+        assertThat(employee.getId()).isEqualTo(1000);
+        assertThat(employee.getVersion()).isZero();
+    }
+
+    // JUnit test for the first id after migrating the baseline schema
+    @Test
+    @DisplayName("JUnit test for the first id after migrating the baseline schema")
+    public void givenBaselineSchema_whenSaveEmployee_thenIdFollowsExistingIds() {
+
+        // given - precondition or setup
+        Employee employee = Employee.builder().firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
+
+        // when - action or the behaviour that we are going test
+        Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+
+        // then - verify the output
+        // not 1001 for sure, the duplicate email test may have taken an id from the same block
+        assertThat(savedEmployee.getId()).isGreaterThan(1000);
+    }
+
+    // JUnit test for the email constraint added to the baseline schema
+    @Test
+    @DisplayName("JUnit test for the email constraint added to the baseline schema")
+    public void givenBaselineSchema_whenSaveDuplicateEmail_thenThrowsException() {
+
+        // given - precondition or setup
+        Employee employee = Employee.builder().firstName("Ramesh").lastName("Other").email("ramesh@gmail.com").build();
+
+        // when - action or the behaviour that we are going test
+        // then - verify the output
+        assertThrows(DataIntegrityViolationException.class, () -> employeeRepository.saveAndFlush(employee));
+    }
+
+    // JUnit test for migrating a baseline schema that holds duplicate emails
+    @Test
+    @DisplayName("JUnit test for migrating a baseline schema that holds duplicate emails")
+    public void givenDuplicateEmails_whenMigrated_thenFailsBeforeChangingTheSchema() throws SQLException {
+
+        // given - precondition or setup
+        String url = "jdbc:h2:mem:duplicates;MODE=MySQL;DB_CLOSE_DELAY=-1";
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table employees (id bigint not null auto_increment, email varchar(255), "
+                    + "first_name varchar(255), last_name varchar(255), primary key (id))");
+            statement.execute("insert into employees (id, email, first_name, last_name) values "
+                    + "(1, 'ramesh@gmail.com', 'Ramesh', 'Fadatare'), (2, 'ramesh@gmail.com', 'Ramesh', 'Other')");
+        }
+        Flyway duplicates = Flyway.configure().dataSource(url, "sa", "").baselineOnMigrate(true).load();
+
+        // when - action or the behaviour that we are going test
+        // then - verify the output
+        assertThrows(FlywayException.class, duplicates::migrate);
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             ResultSet columns = connection.getMetaData().getColumns(null, null, "EMPLOYEES", "VERSION");
+             ResultSet tables = connection.getMetaData().getTables(null, null, "ID_GENERATOR", null)) {
+            assertThat(columns.next()).isFalse();
+            assertThat(tables.next()).isFalse();
+        }
+    }
+}
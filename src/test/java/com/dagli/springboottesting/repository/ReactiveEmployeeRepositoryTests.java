@@ -0,0 +1,80 @@
+package com.dagli.springboottesting.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// only the id allocation, against an embedded database over R2DBC; the id_generator table is the one V2 creates
+public class ReactiveEmployeeRepositoryTests {
+
+    private DatabaseClient databaseClient;
+
+    private ReactiveEmployeeRepository employeeRepository;
+
+    @BeforeEach
+    public void setup() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///reactive;DB_CLOSE_DELAY=-1");
+        databaseClient = DatabaseClient.create(connectionFactory);
+        databaseClient.sql("drop table if exists id_generator").then().block();
+        databaseClient.sql("create table id_generator (next_id bigint, name varchar(255) not null, primary key (name))")
+                .then().block();
+        employeeRepository = new ReactiveEmployeeRepository(new R2dbcEntityTemplate(connectionFactory),
+                TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory)));
+    }
+
+    // JUnit test for nextId
+    @Test
+    @DisplayName("JUnit test for nextId handing out a reserved block from memory")
+    public void givenNewGenerator_whenNextId_thenGoToTheTableOncePerBlock() {
+        // given - precondition or setup
+        seed(0);
+
+        // when - action or the behaviour that we are going test
+        List<Long> ids = Flux.range(0, 60).concatMap(i -> employeeRepository.nextId()).collectList().block();
+
+        // then - verify the output
+        assertThat(ids).containsExactlyElementsOf(LongStream.rangeClosed(1, 60).boxed().toList());
+        // the blocks Hibernate's pooled optimizer reserves for the same reads: 1, 2-51 and 52-101
+        assertThat(storedValue()).isEqualTo(150L);
+    }
+
+    // JUnit test for nextId
+    @Test
+    @DisplayName("JUnit test for nextId after the migration seeded the generator")
+    public void givenSeededGenerator_whenNextId_thenFollowsExistingIds() {
+        // given - precondition or setup
+        // V2 stores max(id) + 49 for a table whose highest id is 951
+        seed(1000);
+
+        // when - action or the behaviour that we are going test
+        Long id = employeeRepository.nextId().block();
+
+        // then - verify the output
+        assertThat(id).isEqualTo(952L);
+        assertThat(storedValue()).isEqualTo(1050L);
+    }
+
+    private void seed(long value) {
+        databaseClient.sql("insert into id_generator (name, next_id) values ('employees', :value)")
+                .bind("value", value)
+                .then().block();
+    }
+
+    private Long storedValue() {
+        return databaseClient.sql("select next_id from id_generator where name = 'employees'")
+                .map(row -> row.get("next_id", Long.class))
+                .one().block();
+    }
+}
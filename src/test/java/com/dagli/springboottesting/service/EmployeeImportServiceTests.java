@@ -0,0 +1,194 @@
+package com.dagli.springboottesting.service;
+
+import com.dagli.springboottesting.dto.EmployeeBatchResult;
+import com.dagli.springboottesting.dto.EmployeeImportReport;
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.service.Impl.EmployeeImportServiceImpl;
+import com.dagli.springboottesting.service.imports.EmployeeRecordReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeImportServiceTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @Captor
+    private ArgumentCaptor<List<Employee>> chunks;
+
+    private EmployeeImportServiceImpl employeeImportService;
+
+    @BeforeEach
+    public void setup() {
+        employeeImportService = new EmployeeImportServiceImpl(employeeService, new ObjectMapper());
+        // every employee is created, except the ones whose email is taken
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            List<EmployeeBatchResult> results = new ArrayList<>();
+            for (int i = 0; i < employees.size(); i++) {
+                results.add(employees.get(i).getEmail().startsWith("taken")
+                        ? EmployeeBatchResult.failed(i, "Employee already exist with given email:" + employees.get(i).getEmail())
+                        : EmployeeBatchResult.created(i, i + 1));
+            }
+            return results;
+        });
+    }
+
+    // JUnit test for importing a CSV file in chunks
+    @Test
+    @DisplayName("JUnit test for importing a CSV file in chunks")
+    public void givenCsvFile_whenImportEmployees_thenSaveInChunks() {
+
+        // given - precondition or setup
+        StringBuilder csv = new StringBuilder("email,firstName,lastName\n");
+        for (int i = 0; i < 2500; i++) {
+            csv.append("employee").append(i).append("@ems.com,first").append(i).append(",\"last, ").append(i).append("\"\n");
+        }
+
+        // when - action or the behaviour that we are going test
+        EmployeeImportReport report = employeeImportService.importEmployees("csv", EmployeeImportService.Format.CSV,
+                new StringReader(csv.toString()));
+
+        // then - verify the output
+        verify(employeeService, times(3)).saveEmployees(chunks.capture());
+        assertThat(report.getStatus()).isEqualTo(EmployeeImportReport.Status.COMPLETED);
+        assertThat(report.getRows()).isEqualTo(2500);
+        assertThat(report.getImported()).isEqualTo(2500);
+        assertThat(report.getFailed()).isEqualTo(0);
+        assertThat(employeeImportService.getImport("csv")).containsSame(report);
+        assertThat(chunks.getAllValues().get(0).get(0).getLastName()).isEqualTo("last, 0");
+    }
+
+    // JUnit test for reporting rejected rows of an import
+    @Test
+    @DisplayName("JUnit test for reporting rejected rows of an import")
+    public void givenInvalidRows_whenImportEmployees_thenReportLineNumbers() {
+
+        // given - precondition or setup
+        String ndjson = "{\"firstName\":\"eren\",\"lastName\":\"dagli\",\"email\":\"eren.dagli@gmail.com\"}\n"
+                + "\n"
+                + "{\"firstName\":\"ahmet\",\"lastName\":\"dagli\",\"email\":\"taken@gmail.com\"}\n"
+                + "{\"firstName\":\"ahmet\",\"lastName\":\"dagli\",\"email\":\"not-an-email\"}\n"
+                + "{\"firstName\":\"ahmet\",\n";
+
+        // when - action or the behaviour that we are going test
+        EmployeeImportReport report = employeeImportService.importEmployees("ndjson", EmployeeImportService.Format.NDJSON,
+                new StringReader(ndjson));
+
+        // then - verify the output
+        assertThat(report.getStatus()).isEqualTo(EmployeeImportReport.Status.COMPLETED);
+        assertThat(report.getRows()).isEqualTo(4);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting("line").containsExactlyInAnyOrder(3L, 4L, 5L);
+    }
+
+    // JUnit test for CSV fields with line breaks, as the export writes them
+    @Test
+    @DisplayName("JUnit test for importing CSV fields with line breaks")
+    public void givenQuotedLineBreaks_whenImportEmployees_thenKeepThemInTheField() {
+
+        // given - precondition or setup
+        String csv = "id,firstName,lastName,email,version\r\n"
+                + "1,eren,\"da\ngli\",eren.dagli@gmail.com,0\r\n"
+                + "2,ahmet,,ahmet@gmail.com,0\r\n";
+
+        // when - action or the behaviour that we are going test
+        EmployeeImportReport report = employeeImportService.importEmployees("csv", EmployeeImportService.Format.CSV,
+                new StringReader(csv));
+
+        // then - verify the output
+        verify(employeeService).saveEmployees(chunks.capture());
+        assertThat(chunks.getValue()).extracting(Employee::getLastName).containsExactly("da\ngli");
+        assertThat(chunks.getValue()).extracting(Employee::getEmail).containsExactly("eren.dagli@gmail.com");
+        // the line numbers of the file, not of the records
+        assertThat(report.getErrors()).extracting("line").containsExactly(4L);
+    }
+
+    // JUnit test for a record without a line break that never ends
+    @Test
+    @DisplayName("JUnit test for rejecting records longer than the limit")
+    public void givenOversizedRecord_whenImportEmployees_thenRejectOnlyThatLine() {
+
+        // given - precondition or setup
+        String ndjson = "{\"firstName\":\"" + "e".repeat(EmployeeRecordReader.MAX_RECORD_LENGTH) + "\"}\n"
+                + "{\"firstName\":\"eren\",\"lastName\":\"dagli\",\"email\":\"eren.dagli@gmail.com\"}\n";
+
+        // when - action or the behaviour that we are going test
+        EmployeeImportReport report = employeeImportService.importEmployees("ndjson", EmployeeImportService.Format.NDJSON,
+                new StringReader(ndjson));
+
+        // then - verify the output
+        assertThat(report.getStatus()).isEqualTo(EmployeeImportReport.Status.COMPLETED);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting("line").containsExactly(1L);
+        assertThat(report.getErrors().get(0).getError()).startsWith("Record longer than");
+    }
+
+    // JUnit test for two imports with the same id
+    @Test
+    @DisplayName("JUnit test for an import while another one with the same id is running")
+    public void givenRunningImport_whenImportEmployeesWithSameId_thenReturnRunningReport() throws Exception {
+
+        // given - precondition or setup
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // holds the first import in its first read until the second one has been tried
+        Reader blockingReader = new Reader() {
+            private final Reader csv = new StringReader("eren,dagli,eren.dagli@gmail.com\n");
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return csv.read(buffer, offset, length);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        CompletableFuture<EmployeeImportReport> first = CompletableFuture.supplyAsync(() ->
+                employeeImportService.importEmployees("import-1", EmployeeImportService.Format.CSV, blockingReader));
+        reading.await();
+
+        // when - action or the behaviour that we are going test
+        EmployeeImportReport second = employeeImportService.importEmployees("import-1", EmployeeImportService.Format.CSV,
+                new StringReader("eren,dagli,eren.dagli@gmail.com\n"));
+        release.countDown();
+
+        // then - verify the output
+        assertThat(second.getStatus()).isEqualTo(EmployeeImportReport.Status.RUNNING);
+        assertThat(first.get().getStatus()).isEqualTo(EmployeeImportReport.Status.COMPLETED);
+        assertThat(first.get().getImported()).isEqualTo(1);
+        assertThat(employeeImportService.getImport("import-1")).containsSame(first.get());
+        assertThat(second).isSameAs(first.get());
+    }
+}
@@ -1,9 +1,15 @@
 package com.dagli.springboottesting.service;
 
+import com.dagli.springboottesting.dto.EmployeeBatchResult;
+import com.dagli.springboottesting.dto.EmployeePage;
+import com.dagli.springboottesting.dto.EmployeeSummary;
 import com.dagli.springboottesting.entity.Employee;
 import com.dagli.springboottesting.exception.ResourceNotFoundException;
 import com.dagli.springboottesting.repository.EmployeeRepository;
 import com.dagli.springboottesting.service.Impl.EmployeeServiceImpl;
+import com.dagli.springboottesting.service.cache.EmployeeCache;
+import com.dagli.springboottesting.service.search.EmployeeSearchIndex;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,15 +19,22 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.willDoNothing;
@@ -32,13 +45,22 @@ public class EmployeeServiceTests {
     @Mock
     private EmployeeRepository employeeRepository;
 
-    @InjectMocks
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private EmployeeCache employeeCache = new EmployeeCache(100, Duration.ofMinutes(10));
+
+    @Spy
+    private EmployeeSearchIndex employeeSearchIndex = new EmployeeSearchIndex(100);
+
     private EmployeeServiceImpl employeeService;
 
     private Employee employee;
 
     @BeforeEach
     public void setup() {
+        employeeService = new EmployeeServiceImpl(employeeRepository, employeeCache, Optional.of(employeeSearchIndex), entityManager);
         //employeeRepository = Mockito.mock(EmployeeRepository.class);
         //employeeService = new EmployeeServiceImpl(employeeRepository);
         employee = Employee.builder()
@@ -55,14 +77,14 @@ public class EmployeeServiceTests {
     public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject() {
 
         // given - precondition or setup
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
         // when - action or the behaviour that we are going test
         Employee savedEmployee = employeeService.saveEmployee(employee);
 
         // then - verify the output
         assertThat(savedEmployee).isNotNull();
+        verify(employeeRepository, never()).findByEmail(any());
     }
 
     // JUnit test for saveEmployee method
@@ -71,7 +93,8 @@ public class EmployeeServiceTests {
     public void givenExistingEmail_whenSaveEmployee_thenThrowsException() {
 
         // given - precondition or setup
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("Duplicate entry for key 'uk_employees_email'"));
 
         // when - action or the behaviour that we are going test
         assertThrows(ResourceNotFoundException.class, () -> {
@@ -79,9 +102,54 @@ public class EmployeeServiceTests {
         });
 
         // then - verify the output
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, times(1)).saveAndFlush(employee);
     }
 
+    // JUnit test for saveEmployee method
+    @Test
+    @DisplayName("JUnit test for saveEmployee method with a violation of another constraint")
+    public void givenOtherConstraintViolation_whenSaveEmployee_thenRethrowsIt() {
+
+        // given - precondition or setup
+        DataIntegrityViolationException violation =
+                new DataIntegrityViolationException("Column 'first_name' cannot be null");
+        given(employeeRepository.saveAndFlush(employee)).willThrow(violation);
+
+        // when - action or the behaviour that we are going test
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> {
+            employeeService.saveEmployee(employee);
+        });
+
+        // then - verify the output
+        assertThat(exception).isSameAs(violation);
+        verify(employeeCache, never()).put(any(Employee.class), anyLong());
+    }
+
+
+    // JUnit test for saveEmployees method
+    @Test
+    @DisplayName("JUnit test for saveEmployees method with existing and repeated emails")
+    public void givenEmployeesWithDuplicateEmails_whenSaveEmployees_thenReturnResultPerItem() {
+        // given - precondition or setup
+        Employee employee1 = Employee.builder().firstName("ahmet").lastName("dagli").email("ahmet.dagli@gmail.com").build();
+        Employee employee2 = Employee.builder().firstName("ahmet").lastName("dagli").email("ahmet.dagli@gmail.com").build();
+        given(employeeRepository.findExistingEmails(anyCollection())).willReturn(Set.of(employee.getEmail()));
+        given(employeeRepository.saveAll(List.of(employee1))).willAnswer((invocation) -> {
+            employee1.setId(42L);
+            return List.of(employee1);
+        });
+
+        // when - action or the behaviour that we are going test
+        List<EmployeeBatchResult> results = employeeService.saveEmployees(List.of(employee, employee1, employee2));
+
+        // then - verify the output
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).getError()).contains(employee.getEmail());
+        assertThat(results.get(1).getId()).isEqualTo(42L);
+        assertThat(results.get(1).getError()).isNull();
+        assertThat(results.get(2).getError()).contains(employee2.getEmail());
+        verify(employeeRepository, never()).findByEmail(any());
+    }
 
     // JUnit test for getAllEmployees method
     @Test
@@ -119,6 +187,56 @@ public class EmployeeServiceTests {
     }
 
 
+    // JUnit test for getEmployeesAfter method
+    @Test
+    @DisplayName("JUnit test for getEmployeesAfter method")
+    public void givenMoreEmployeesThanPageSize_whenGetEmployeesAfter_thenReturnPageWithNextCursor() {
+        // given - precondition or setup
+        Employee employee1 = Employee.builder().id(6L).firstName("ahmet").lastName("dagli").email("ahmet.dagli@gmail.com").build();
+        Employee employee2 = Employee.builder().id(7L).firstName("mehmet").lastName("dagli").email("mehmet.dagli@gmail.com").build();
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(5L, PageRequest.of(0, 2)))
+                .willReturn(List.of(employee1, employee2));
+
+        // when - action or the behaviour that we are going test
+        EmployeePage page = employeeService.getEmployeesAfter(5L, 1);
+
+        // then - verify the output
+        assertThat(page.getEmployees()).containsExactly(employee1);
+        assertThat(page.getNext()).isEqualTo(6L);
+    }
+
+    // JUnit test for getEmployeesAfter method
+    @Test
+    @DisplayName("JUnit test for getEmployeesAfter method (last page)")
+    public void givenLastPage_whenGetEmployeesAfter_thenReturnPageWithoutNextCursor() {
+        // given - precondition or setup
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 3)))
+                .willReturn(List.of(employee));
+
+        // when - action or the behaviour that we are going test
+        EmployeePage page = employeeService.getEmployeesAfter(null, 2);
+
+        // then - verify the output
+        assertThat(page.getEmployees()).containsExactly(employee);
+        assertThat(page.getNext()).isNull();
+    }
+
+    // JUnit test for getEmployeeSummariesAfter method
+    @Test
+    @DisplayName("JUnit test for getEmployeeSummariesAfter method")
+    public void givenEmployeeSummaries_whenGetEmployeeSummariesAfter_thenReturnProjection() {
+        // given - precondition or setup
+        EmployeeSummary summary = new EmployeeSummary(2L, "eren", "dagli", "eren.dagli@gmail.com");
+        given(employeeRepository.findSummariesAfter(1L, PageRequest.of(0, 10))).willReturn(List.of(summary));
+
+        // when - action or the behaviour that we are going test
+        List<EmployeeSummary> summaries = employeeService.getEmployeeSummariesAfter(1L, 10);
+
+        // then - verify the output
+        assertThat(summaries).containsExactly(summary);
+        verify(employeeRepository, never()).findAll();
+    }
+
     // JUnit test for getEmployeeById method
     @Test
     @DisplayName("JUnit test for getEmployeeById method")
@@ -133,20 +251,122 @@ public class EmployeeServiceTests {
         assertThat(savedEmployee).isNotNull();
     }
 
+    // JUnit test for getEmployeeById method
+    @Test
+    @DisplayName("JUnit test for getEmployeeById method served from cache")
+    public void givenCachedEmployee_whenGetEmployeeById_thenReadDatabaseOnce() {
+        // given - precondition or setup
+        employee.setId(1L);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        // when - action or the behaviour that we are going test
+        employeeService.getEmployeeById(1L);
+        Optional<Employee> cachedEmployee = employeeService.getEmployeeById(1L);
+
+        // then - verify the output
+        assertThat(cachedEmployee).isPresent();
+        assertThat(cachedEmployee.get().getEmail()).isEqualTo(employee.getEmail());
+        verify(employeeRepository, times(1)).findById(1L);
+        assertThat(employeeCache.hitCount()).isEqualTo(1);
+    }
+
+    // JUnit test for update Employee method
+    @Test
+    @DisplayName("JUnit test for update Employee method invalidating the cache")
+    public void givenCachedEmployee_whenUpdateEmployee_thenReadFreshEmployee() {
+        // given - precondition or setup
+        employee.setId(1L);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        given(employeeRepository.updateEmployee(1L, "ahmet", "dagli", "eren.dagli@gmail.com")).willReturn(1);
+        given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(1L));
+        employeeService.getEmployeeById(1L);
+
+        // when - action or the behaviour that we are going test
+        employee.setFirstName("ahmet");
+        employeeService.updateEmployee(1L, employee, null);
+        Optional<Employee> updatedEmployee = employeeService.getEmployeeById(1L);
+
+        // then - verify the output
+        assertThat(updatedEmployee.get().getFirstName()).isEqualTo("ahmet");
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+
+    // JUnit test for getEmployeeVersion method
+    @Test
+    @DisplayName("JUnit test for getEmployeeVersion method")
+    public void givenEmployeeId_whenGetEmployeeVersion_thenReadVersionOnly() {
+        // given - precondition or setup
+        given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(2L));
+
+        // when - action or the behaviour that we are going test
+        Optional<Long> version = employeeService.getEmployeeVersion(1L);
+
+        // then - verify the output
+        assertThat(version).contains(2L);
+        verify(employeeRepository, never()).findById(1L);
+    }
+
     // JUnit test for update Employee method
     @Test
     @DisplayName("JUnit test for update Employee method")
     public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployeeObject() {
         // given - precondition or setup
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.updateEmployeeIfVersion(1L, "ahmet", "dagli", "eren.dagli@gmail.com", 2L)).willReturn(1);
         employee.setFirstName("ahmet");
 
         // when - action or the behaviour that we are going test
-        Employee updatedEmployee = employeeService.updateEmployee(employee);
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee, 2L);
 
         // then - verify the output
-        assertThat(employee).isNotNull();
-        assertThat(updatedEmployee.getFirstName()).isEqualTo("ahmet");
+        assertThat(updatedEmployee).isPresent();
+        assertThat(updatedEmployee.get().getFirstName()).isEqualTo("ahmet");
+        assertThat(updatedEmployee.get().getVersion()).isEqualTo(3L);
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    // JUnit test for update Employee method
+    @Test
+    @DisplayName("JUnit test for update Employee method without an expected version")
+    public void givenNoExpectedVersion_whenUpdateEmployee_thenReturnNewVersion() {
+        // given - precondition or setup
+        given(employeeRepository.updateEmployee(1L, "ahmet", "dagli", "eren.dagli@gmail.com")).willReturn(1);
+        given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(4L));
+        employee.setFirstName("ahmet");
+
+        // when - action or the behaviour that we are going test
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee, null);
+
+        // then - verify the output
+        assertThat(updatedEmployee).isPresent();
+        assertThat(updatedEmployee.get().getVersion()).isEqualTo(4L);
+    }
+
+    // JUnit test for update Employee method
+    @Test
+    @DisplayName("JUnit test for update Employee method with a stale version")
+    public void givenStaleVersion_whenUpdateEmployee_thenThrowsException() {
+        // given - precondition or setup
+        given(employeeRepository.updateEmployeeIfVersion(1L, "eren", "dagli", "eren.dagli@gmail.com", 2L)).willReturn(0);
+        given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(5L));
+
+        // when - action or the behaviour that we are going test
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            employeeService.updateEmployee(1L, employee, 2L);
+        });
+    }
+
+    // JUnit test for update Employee method
+    @Test
+    @DisplayName("JUnit test for update Employee method (missing employee)")
+    public void givenMissingEmployee_whenUpdateEmployee_thenReturnEmpty() {
+        // given - precondition or setup
+        given(employeeRepository.updateEmployee(1L, "eren", "dagli", "eren.dagli@gmail.com")).willReturn(0);
+
+        // when - action or the behaviour that we are going test
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee, null);
+
+        // then - verify the output
+        assertThat(updatedEmployee).isEmpty();
     }
 
 
@@ -155,12 +375,105 @@ public class EmployeeServiceTests {
     @DisplayName("JUnit test for deleteEmployee method")
     public void givenEmployeeId_whenDeleteEmployee_thenNothing() {
         // given - precondition or setup
-        willDoNothing().given(employeeRepository).deleteById(employee.getId());
+        given(employeeRepository.deleteEmployeeById(employee.getId())).willReturn(1);
+
+        // when - action or the behaviour that we are going test
+        boolean deleted = employeeService.deleteEmployee(employee.getId());
+
+        // then - verify the output
+        assertThat(deleted).isTrue();
+        verify(employeeRepository,times(1)).deleteEmployeeById(employee.getId());
+        verify(employeeRepository, never()).deleteById(employee.getId());
+    }
+
+    // JUnit test for searchEmployees method
+    @Test
+    @DisplayName("JUnit test for searchEmployees method")
+    public void givenSavedAndUpdatedEmployees_whenSearchEmployees_thenReturnCurrentMatches() {
+        // given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("ahmet")
+                .lastName("dagli")
+                .email("ahmet.dagli@gmail.com")
+                .build();
+        employee.setId(1L);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee1)).willReturn(employee1);
+        given(employeeRepository.updateEmployee(2L, "mehmet", "dagli", "ahmet.dagli@gmail.com")).willReturn(1);
+        given(employeeRepository.findVersionById(2L)).willReturn(Optional.of(1L));
+        employeeService.saveEmployee(employee);
+        employeeService.saveEmployee(employee1);
+
+        // when - action or the behaviour that we are going test
+        employeeService.updateEmployee(2L, Employee.builder()
+                .firstName("mehmet")
+                .lastName("dagli")
+                .email("ahmet.dagli@gmail.com")
+                .build(), null);
+
+        // then - verify the output
+        assertThat(employeeService.searchEmployees("dag", 10).get()).extracting(EmployeeSummary::getId).containsExactly(1L, 2L);
+        assertThat(employeeService.searchEmployees("mehmet", 10).get()).extracting(EmployeeSummary::getId).containsExactly(2L);
+        assertThat(employeeService.searchEmployees("ahmet", 10).get()).extracting(EmployeeSummary::getId).containsExactly(2L);
+        verify(employeeRepository, never()).findAll();
+    }
+
+    // JUnit test for searchEmployees method
+    @Test
+    @DisplayName("JUnit test for searchEmployees method after a delete")
+    public void givenIndexedEmployee_whenDeleteEmployee_thenRemoveFromSearchResults() {
+        // given - precondition or setup
+        employee.setId(1L);
+        employeeSearchIndex.put(employee);
+        given(employeeRepository.deleteEmployeeById(1L)).willReturn(1);
+
+        // when - action or the behaviour that we are going test
+        employeeService.deleteEmployee(1L);
+
+        // then - verify the output
+        assertThat(employeeService.searchEmployees("eren", 10).get()).isEmpty();
+        assertThat(employeeSearchIndex.size()).isZero();
+    }
+
+    // JUnit test for searchEmployees method
+    @Test
+    @DisplayName("JUnit test for searchEmployees method without a search index")
+    public void givenSearchDisabled_whenSaveAndSearchEmployees_thenReturnEmpty() {
+        // given - precondition or setup
+        EmployeeServiceImpl employeeServiceWithoutSearch =
+                new EmployeeServiceImpl(employeeRepository, employeeCache, Optional.empty(), entityManager);
+        employee.setId(1L);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+        employeeServiceWithoutSearch.saveEmployee(employee);
+
+        // when - action or the behaviour that we are going test
+        Optional<List<EmployeeSummary>> employees = employeeServiceWithoutSearch.searchEmployees("eren", 10);
+
+        // then - verify the output
+        assertThat(employees).isEmpty();
+    }
+
+    // JUnit test for exportEmployees method
+    @Test
+    @DisplayName("JUnit test for exportEmployees method")
+    public void givenEmployeesStream_whenExportEmployees_thenDetachEachWrittenEmployee() {
+        // given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("ahmet")
+                .lastName("dagli")
+                .email("ahmet.dagli@gmail.com")
+                .build();
+        given(employeeRepository.streamAll()).willReturn(Stream.of(employee, employee1));
+        List<Employee> exported = new ArrayList<>();
 
         // when - action or the behaviour that we are going test
-        employeeService.deleteEmployee(employee.getId());
+        employeeService.exportEmployees(exported::add);
 
         // then - verify the output
-        verify(employeeRepository,times(1)).deleteById(employee.getId());
+        assertThat(exported).containsExactly(employee, employee1);
+        verify(entityManager).detach(employee);
+        verify(entityManager).detach(employee1);
     }
 }
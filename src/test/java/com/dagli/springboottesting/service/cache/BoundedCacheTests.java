@@ -0,0 +1,101 @@
+package com.dagli.springboottesting.service.cache;
+
+import com.dagli.springboottesting.entity.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BoundedCacheTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    // JUnit test for size based eviction
+    @Test
+    @DisplayName("JUnit test for size based eviction")
+    public void givenFullCache_whenPut_thenEvictLeastRecentlyUsed() {
+        // given - precondition or setup
+        List<String> evicted = new ArrayList<>();
+        BoundedCache<String, String> cache = new BoundedCache<>(2, Duration.ofMinutes(1), clock::get,
+                (key, value) -> evicted.add(key));
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+
+        // when - action or the behaviour that we are going test
+        cache.put("c", "3");
+
+        // then - verify the output
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(evicted).containsExactly("b");
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+
+    // JUnit test for time based eviction
+    @Test
+    @DisplayName("JUnit test for time based eviction")
+    public void givenExpiredEntry_whenGet_thenReturnNull() {
+        // given - precondition or setup
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofSeconds(1), clock::get,
+                (key, value) -> { });
+        cache.put("a", "1");
+
+        // when - action or the behaviour that we are going test
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        // then - verify the output
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+
+    // JUnit test for putIfAbsent
+    @Test
+    @DisplayName("JUnit test for putIfAbsent")
+    public void givenLiveAndExpiredEntries_whenPutIfAbsent_thenOnlyReplaceTheExpiredOne() {
+        // given - precondition or setup
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofSeconds(2), clock::get,
+                (key, value) -> { });
+        cache.put("a", "1");
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        cache.put("b", "2");
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        // when - action or the behaviour that we are going test
+        String previousA = cache.putIfAbsent("a", "3");
+        String previousB = cache.putIfAbsent("b", "4");
+
+        // then - verify the output
+        assertThat(previousA).isNull();
+        assertThat(previousB).isEqualTo("2");
+        assertThat(cache.get("a")).isEqualTo("3");
+        assertThat(cache.get("b")).isEqualTo("2");
+    }
+
+    // JUnit test for stale loads racing with an invalidation
+    @Test
+    @DisplayName("JUnit test for stale loads racing with an invalidation")
+    public void givenInvalidationAfterStamp_whenPut_thenDoNotCache() {
+        // given - precondition or setup
+        EmployeeCache employeeCache = new EmployeeCache(10, Duration.ofMinutes(1));
+        long stamp = employeeCache.stamp();
+
+        // when - action or the behaviour that we are going test
+        employeeCache.invalidate(1L);
+        employeeCache.put(Employee.builder()
+                .id(1L)
+                .email("eren.dagli@gmail.com")
+                .build(), stamp);
+
+        // then - verify the output
+        assertThat(employeeCache.get(1L)).isEmpty();
+        assertThat(employeeCache.getByEmail("eren.dagli@gmail.com")).isEmpty();
+    }
+}
@@ -0,0 +1,39 @@
+package com.dagli.springboottesting.service.cache;
+
+import com.dagli.springboottesting.entity.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeCacheTests {
+
+    // JUnit test for evicting an employee without an email
+    @Test
+    @DisplayName("JUnit test for evicting an employee without an email")
+    public void givenEmployeeWithoutEmail_whenEvicted_thenKeepTheOtherEntries() {
+        // given - precondition or setup
+        EmployeeCache employeeCache = new EmployeeCache(1, Duration.ofMinutes(10));
+        employeeCache.put(employee(1L, null), employeeCache.stamp());
+
+        // when - action or the behaviour that we are going test
+        employeeCache.put(employee(2L, "eren.dagli@gmail.com"), employeeCache.stamp());
+
+        // then - verify the output
+        assertThat(employeeCache.evictionCount()).isEqualTo(1);
+        assertThat(employeeCache.get(1L)).isEmpty();
+        assertThat(employeeCache.getByEmail("eren.dagli@gmail.com")).isPresent();
+    }
+
+    private static Employee employee(long id, String email) {
+        return Employee.builder()
+                .id(id)
+                .firstName("eren")
+                .lastName("dagli")
+                .email(email)
+                .version(0L)
+                .build();
+    }
+}
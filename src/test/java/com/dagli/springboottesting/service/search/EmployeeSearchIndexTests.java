@@ -0,0 +1,150 @@
+package com.dagli.springboottesting.service.search;
+
+import com.dagli.springboottesting.dto.EmployeeSummary;
+import com.dagli.springboottesting.entity.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeSearchIndexTests {
+
+    private final EmployeeSearchIndex index = new EmployeeSearchIndex(100);
+
+    // JUnit test for prefix search ranking
+    @Test
+    @DisplayName("JUnit test for prefix search ranking")
+    public void givenIndexedEmployees_whenSearchPrefix_thenRankExactAndNameMatchesFirst() {
+        // given - precondition or setup
+        index.put(employee(1L, "Anna", "Smith", "asmith@ems.com"));
+        index.put(employee(2L, "Ann", "Jones", "ajones@ems.com"));
+        index.put(employee(3L, "Bob", "Annandale", "bob@ems.com"));
+        index.put(employee(4L, "Carl", "White", "annie.white@ems.com"));
+        index.put(employee(5L, "Dan", "Brown", "dan@ems.com"));
+
+        // when - action or the behaviour that we are going test
+        List<EmployeeSummary> employees = index.search("Ann", 10);
+
+        // then - verify the output
+        assertThat(employees).extracting(EmployeeSummary::getId).containsExactly(2L, 1L, 3L, 4L);
+    }
+
+    // JUnit test for multi token search
+    @Test
+    @DisplayName("JUnit test for multi token search")
+    public void givenIndexedEmployees_whenSearchSeveralTokens_thenEveryTokenHasToMatch() {
+        // given - precondition or setup
+        index.put(employee(1L, "eren", "dagli", "eren.dagli@gmail.com"));
+        index.put(employee(2L, "ahmet", "dagli", "ahmet.dagli@gmail.com"));
+        index.put(employee(3L, "eren", "yilmaz", "eren.yilmaz@gmail.com"));
+
+        // when - action or the behaviour that we are going test
+        List<EmployeeSummary> employees = index.search("dag ER", 10);
+
+        // then - verify the output
+        assertThat(employees).extracting(EmployeeSummary::getId).containsExactly(1L);
+        assertThat(index.search("ahmet.dagli@g", 10)).extracting(EmployeeSummary::getId).containsExactly(2L);
+        assertThat(index.search("gmail", 10)).isEmpty();
+    }
+
+    // JUnit test for multi token search with more common matches than maxCandidates
+    @Test
+    @DisplayName("JUnit test for multi token search with more common matches than maxCandidates")
+    public void givenCommonTokenOverMaxCandidates_whenSearchSeveralTokens_thenFindRareMatch() {
+        // given - precondition or setup
+        for (long id = 1; id <= 1000; id++) {
+            index.put(employee(id, "first" + id, "smith", "e" + id + "@ems.com"));
+        }
+        index.put(employee(1001L, "john", "smith", "js@ems.com"));
+
+        // when - action or the behaviour that we are going test
+        List<EmployeeSummary> employees = index.search("john smith", 10);
+
+        // then - verify the output
+        assertThat(employees).extracting(EmployeeSummary::getId).containsExactly(1001L);
+        assertThat(index.search("smith john", 10)).extracting(EmployeeSummary::getId).containsExactly(1001L);
+    }
+
+    // JUnit test for multi token search where every token is common
+    @Test
+    @DisplayName("JUnit test for multi token search where every token is common")
+    public void givenEveryTokenOverMaxCandidates_whenSearchSeveralTokens_thenFindTheirIntersection() {
+        // given - precondition or setup
+        for (long id = 1; id <= 500; id++) {
+            index.put(employee(id, "john", "last" + id, "a" + id + "@ems.com"));
+            index.put(employee(1000 + id, "first" + id, "smith", "b" + id + "@ems.com"));
+        }
+        index.put(employee(2001L, "john", "smith", "js@ems.com"));
+
+        // when - action or the behaviour that we are going test
+        List<EmployeeSummary> employees = index.search("john smith", 10);
+
+        // then - verify the output
+        assertThat(employees).extracting(EmployeeSummary::getId).containsExactly(2001L);
+    }
+
+    // JUnit test for incremental updates
+    @Test
+    @DisplayName("JUnit test for incremental updates")
+    public void givenIndexedEmployee_whenPutAndRemove_thenSearchSeesLatestState() {
+        // given - precondition or setup
+        index.put(employee(1L, "eren", "dagli", "eren.dagli@gmail.com"));
+        index.put(employee(2L, "ahmet", "dagli", "ahmet.dagli@gmail.com"));
+
+        // when - action or the behaviour that we are going test
+        index.put(employee(1L, "mehmet", "kaya", "mehmet.kaya@gmail.com"));
+        index.remove(2L);
+
+        // then - verify the output
+        assertThat(index.search("dagli", 10)).isEmpty();
+        assertThat(index.search("kaya", 10)).extracting(EmployeeSummary::getEmail).containsExactly("mehmet.kaya@gmail.com");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    // JUnit test for loading the index
+    @Test
+    @DisplayName("JUnit test for loading the index")
+    public void givenWritesDuringLoad_whenLoadOlderSnapshot_thenKeepTheWrites() {
+        // given - precondition or setup
+        index.beginLoad();
+        index.put(employee(1L, "mehmet", "kaya", "mehmet.kaya@gmail.com"));
+        index.remove(2L);
+
+        // when - action or the behaviour that we are going test
+        index.load(employee(1L, "eren", "dagli", "eren.dagli@gmail.com"));
+        index.load(employee(2L, "ahmet", "dagli", "ahmet.dagli@gmail.com"));
+        index.load(employee(3L, "ali", "dagli", "ali.dagli@gmail.com"));
+        index.endLoad();
+
+        // then - verify the output
+        assertThat(index.search("dagli", 10)).extracting(EmployeeSummary::getId).containsExactly(3L);
+        assertThat(index.search("mehmet", 10)).extracting(EmployeeSummary::getId).containsExactly(1L);
+    }
+
+    // JUnit test for the result limit
+    @Test
+    @DisplayName("JUnit test for the result limit")
+    public void givenManyMatches_whenSearchWithLimit_thenReturnBestMatchesOnly() {
+        // given - precondition or setup
+        for (long id = 1; id <= 50; id++) {
+            index.put(employee(id, "first" + id, "last" + id, "employee" + id + "@ems.com"));
+        }
+
+        // when - action or the behaviour that we are going test
+        List<EmployeeSummary> employees = index.search("first1", 3);
+
+        // then - verify the output
+        assertThat(employees).extracting(EmployeeSummary::getId).containsExactly(1L, 10L, 11L);
+    }
+
+    private static Employee employee(long id, String firstName, String lastName, String email) {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+}
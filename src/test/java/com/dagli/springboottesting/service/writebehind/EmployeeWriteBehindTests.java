@@ -0,0 +1,254 @@
+package com.dagli.springboottesting.service.writebehind;
+
+import com.dagli.springboottesting.entity.Employee;
+import com.dagli.springboottesting.exception.ResourceNotFoundException;
+import com.dagli.springboottesting.service.EmployeeService;
+import com.dagli.springboottesting.service.cache.EmployeeCache;
+import com.dagli.springboottesting.service.search.EmployeeSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "employee.write-behind.enabled=true",
+        "employee.search.enabled=true",
+        // smaller than the number of unflushed employees in the tests below
+        "employee.cache.maximum-size=2",
+        // only the explicit flush() calls below write to the database
+        "employee.write-behind.flush-interval=1h"
+})
+@ActiveProfiles("h2")
+public class EmployeeWriteBehindTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeWriteFlusher employeeWriteFlusher;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    @DynamicPropertySource
+    static void writeLogDirectory(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("ems-write-behind");
+        registry.add("employee.write-behind.directory", directory::toString);
+    }
+
+    @BeforeEach
+    public void setup() {
+        employeeWriteFlusher.flush();
+        jdbcTemplate.getJdbcTemplate().update("delete from employees");
+        employeeCache.clear();
+        employeeSearchIndex.clear();
+    }
+
+    // JUnit test for write-behind saveEmployee and updateEmployee
+    @Test
+    @DisplayName("JUnit test for write-behind saveEmployee and updateEmployee")
+    public void givenWriteBehindMode_whenSaveAndUpdateEmployee_thenAcknowledgeBeforeTheDatabaseHasIt() {
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("eren")
+                .lastName("dagli")
+                .email("eren.dagli@gmail.com")
+                .build();
+
+        // when - action or the behaviour that we are going test
+        Employee savedEmployee = employeeService.saveEmployee(employee);
+        employee.setFirstName("ahmet");
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(savedEmployee.getId(), employee, 0L);
+        int rowsBeforeFlush = rowCount();
+        int flushed = employeeWriteFlusher.flush();
+
+        // then - verify the output
+        assertThat(savedEmployee.getId()).isGreaterThan(0);
+        assertThat(updatedEmployee).isPresent();
+        assertThat(updatedEmployee.get().getVersion()).isEqualTo(1L);
+        assertThat(rowsBeforeFlush).isZero();
+        assertThat(flushed).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForMap("select first_name, version from employees where id = :id",
+                Map.of("id", savedEmployee.getId())))
+                .containsEntry("FIRST_NAME", "ahmet")
+                .containsEntry("VERSION", 1L);
+        assertThat(employeeService.searchEmployees("ahmet", 10).get()).hasSize(1);
+    }
+
+    // JUnit test for write-behind saveEmployee with an email already in the database
+    @Test
+    @DisplayName("JUnit test for write-behind saveEmployee with an email already in the database")
+    public void givenEmailInDatabase_whenSaveEmployee_thenThrowsException() {
+        // given - precondition or setup
+        employeeService.saveEmployee(employee(0, "eren"));
+        employeeWriteFlusher.flush();
+        // nothing cached, only the table knows the email
+        employeeCache.clear();
+
+        // when - action or the behaviour that we are going test
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.saveEmployee(employee(0, "eren")));
+
+        // then - verify the output
+        assertThat(employeeWriteFlusher.flush()).isZero();
+        assertThat(rowCount()).isEqualTo(1);
+    }
+
+    // JUnit test for unflushed employees in a full cache
+    @Test
+    @DisplayName("JUnit test for unflushed employees in a full cache")
+    public void givenMoreUnflushedEmployeesThanCacheSize_whenGetAndSave_thenNoneIsEvicted() {
+        // given - precondition or setup
+        List<Employee> savedEmployees = new ArrayList<>();
+        for (String firstName : List.of("eren", "ahmet", "mehmet", "ayse")) {
+            savedEmployees.add(employeeService.saveEmployee(employee(0, firstName)));
+        }
+
+        // when - action or the behaviour that we are going test
+        List<Optional<Employee>> readEmployees = savedEmployees.stream()
+                .map(employee -> employeeService.getEmployeeById(employee.getId()))
+                .toList();
+
+        // then - verify the output
+        assertThat(readEmployees).allMatch(Optional::isPresent);
+        assertThat(employeeCache.pendingSize()).isEqualTo(4);
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.saveEmployee(employee(0, "eren")));
+        assertThat(employeeWriteFlusher.flush()).isEqualTo(4);
+        assertThat(employeeCache.pendingSize()).isZero();
+        assertThat(rowCount()).isEqualTo(4);
+        assertThat(employeeService.getEmployeeById(savedEmployees.get(0).getId())).isPresent();
+    }
+
+    // JUnit test for replaying the write log
+    @Test
+    @DisplayName("JUnit test for replaying the write log after a crash before the checkpoint")
+    public void givenCrashAfterDatabaseCommit_whenReplayLog_thenWriteEachEmployeeOnce() throws IOException {
+        // given - precondition or setup
+        Path primary = Files.createDirectory(directory.resolve("primary"));
+        EmployeeWriteLog writeLog = new EmployeeWriteLog(primary, 64 * 1024, false);
+        for (long id = 1; id <= 3; id++) {
+            writeLog.append(EmployeeWrite.insert(employee(1_000_000 + id, "eren" + id)));
+        }
+        writeLog.append(EmployeeWrite.update(1_000_001, employee(1_000_001, "ahmet"), 0L, 1L));
+        writeLog.append(EmployeeWrite.update(1_000_002, employee(1_000_002, "mehmet"), null, 1L));
+        // what the disk looked like had the process died after the database commit but before the checkpoint
+        Path crashed = copy(primary, directory.resolve("crashed"));
+        flusher(writeLog, new ArrayList<>()).flush();
+
+        // when - action or the behaviour that we are going test
+        List<EmployeeWrite> rejected = new ArrayList<>();
+        int replayed = flusher(new EmployeeWriteLog(crashed, 64 * 1024, false), rejected).flush();
+
+        // then - verify the output
+        assertThat(replayed).isEqualTo(5);
+        assertThat(rowCount()).isEqualTo(3);
+        // both updates are already in, neither is applied a second time nor reported as dropped
+        assertThat(rejected).isEmpty();
+        assertThat(jdbcTemplate.queryForList("select version from employees where id in (1000001, 1000002)", Map.of(), Long.class))
+                .containsExactly(1L, 1L);
+    }
+
+    // JUnit test for write-behind saveEmployee without an email
+    @Test
+    @DisplayName("JUnit test for write-behind saveEmployee without an email")
+    public void givenEmployeeWithoutEmail_whenSaveEmployee_thenFlushIt() {
+        // given - precondition or setup
+        Employee employee = Employee.builder().firstName("eren").lastName("dagli").build();
+
+        // when - action or the behaviour that we are going test
+        Employee firstEmployee = employeeService.saveEmployee(employee);
+        Employee secondEmployee = employeeService.saveEmployee(employee);
+        int flushed = employeeWriteFlusher.flush();
+
+        // then - verify the output
+        assertThat(flushed).isEqualTo(2);
+        assertThat(rowCount()).isEqualTo(2);
+        assertThat(employeeService.getEmployeeById(firstEmployee.getId())).isPresent();
+        assertThat(employeeService.getEmployeeById(secondEmployee.getId())).isPresent();
+    }
+
+    // JUnit test for writes the database refuses
+    @Test
+    @DisplayName("JUnit test for writes the database refuses")
+    public void givenDuplicateEmailAndStaleVersion_whenFlush_thenDropOnlyThoseWrites() {
+        // given - precondition or setup
+        EmployeeWriteLog writeLog = new EmployeeWriteLog(directory, 64 * 1024, false);
+        writeLog.append(EmployeeWrite.insert(employee(2_000_001, "eren")));
+        writeLog.append(EmployeeWrite.insert(employee(2_000_002, "eren")));
+        writeLog.append(EmployeeWrite.update(2_000_001, employee(2_000_001, "ahmet"), 5L, 6L));
+        writeLog.append(EmployeeWrite.update(2_000_001, employee(2_000_001, "mehmet"), null, 1L));
+        List<EmployeeWrite> rejected = new ArrayList<>();
+
+        // when - action or the behaviour that we are going test
+        int flushed = flusher(writeLog, rejected).flush();
+
+        // then - verify the output
+        assertThat(flushed).isEqualTo(4);
+        assertThat(rejected).extracting(EmployeeWrite::id).containsExactly(2_000_002L, 2_000_001L);
+        assertThat(jdbcTemplate.queryForObject("select first_name from employees where id = 2000001", Map.of(), String.class))
+                .isEqualTo("mehmet");
+        assertThat(writeLog.pending()).isZero();
+    }
+
+    private EmployeeWriteFlusher flusher(EmployeeWriteLog writeLog, List<EmployeeWrite> rejected) {
+        return new EmployeeWriteFlusher(writeLog, jdbcTemplate, new TransactionTemplate(transactionManager), 2,
+                Duration.ofHours(1), rejected::add, new SimpleMeterRegistry());
+    }
+
+    private int rowCount() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject("select count(*) from employees", Integer.class);
+    }
+
+    private static Path copy(Path source, Path target) throws IOException {
+        Files.createDirectory(target);
+        try (Stream<Path> paths = Files.list(source)) {
+            for (Path path : paths.toList()) {
+                Files.copy(path, target.resolve(path.getFileName()));
+            }
+        }
+        return target;
+    }
+
+    private static Employee employee(long id, String firstName) {
+        // the email follows the first name, so two inserts with the same name clash on it
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName("dagli")
+                .email(firstName + ".dagli@gmail.com")
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.dagli.springboottesting.service.writebehind;
+
+import com.dagli.springboottesting.entity.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeWriteLogTests {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    private Path directory;
+
+    // JUnit test for replaying uncommitted writes
+    @Test
+    @DisplayName("JUnit test for replaying uncommitted writes after a crash")
+    public void givenUncommittedWrites_whenReopenWithoutClose_thenReplayThemInOrder() {
+        // given - precondition or setup
+        EmployeeWriteLog writeLog = new EmployeeWriteLog(directory, SEGMENT_SIZE, false);
+        writeLog.append(EmployeeWrite.insert(employee(1L, "eren")));
+        writeLog.append(EmployeeWrite.update(1L, employee(1L, "ahmet"), 0L, 1L));
+        writeLog.append(EmployeeWrite.insert(employee(2L, null)));
+
+        // when - action or the behaviour that we are going test
+        // the process dies: no close, no commit
+        EmployeeWriteLog reopened = new EmployeeWriteLog(directory, SEGMENT_SIZE, false);
+        EmployeeWriteLog.Batch batch = reopened.read(reopened.committedPosition(), 10);
+
+        // then - verify the output
+        assertThat(batch.writes()).containsExactly(
+                EmployeeWrite.insert(employee(1L, "eren")),
+                EmployeeWrite.update(1L, employee(1L, "ahmet"), 0L, 1L),
+                EmployeeWrite.insert(employee(2L, null)));
+        assertThat(reopened.pending()).isEqualTo(3);
+    }
+
+    // JUnit test for replaying after a checkpoint
+    @Test
+    @DisplayName("JUnit test for replaying after a checkpoint")
+    public void givenCommittedBatch_whenReopen_thenReplayOnlyTheWritesAfterIt() {
+        // given - precondition or setup
+        EmployeeWriteLog writeLog = new EmployeeWriteLog(directory, SEGMENT_SIZE, false);
+        for (long id = 1; id <= 5; id++) {
+            writeLog.append(EmployeeWrite.insert(employee(id, "eren")));
+        }
+        writeLog.commit(writeLog.read(writeLog.committedPosition(), 3));
+
+        // when - action or the behaviour that we are going test
+        EmployeeWriteLog reopened = new EmployeeWriteLog(directory, SEGMENT_SIZE, false);
+        EmployeeWriteLog.Batch batch = reopened.read(reopened.committedPosition(), 10);
+
+        // then - verify the output
+        assertThat(batch.writes()).extracting(EmployeeWrite::id).containsExactly(4L, 5L);
+        assertThat(reopened.pending()).isEqualTo(2);
+    }
+
+    // JUnit test for a torn write
+    @Test
+    @DisplayName("JUnit test for a write torn by a crash")
+    public void givenTornLastRecord_whenReopen_thenDropItAndKeepAppending() throws IOException {
+        // given - precondition or setup
+        EmployeeWriteLog writeLog = new EmployeeWriteLog(directory, SEGMENT_SIZE, false);
+        writeLog.append(EmployeeWrite.insert(employee(1L, "eren")));
+        long tornRecord = writeLog.read(0, 10).end();
+        long end = writeLog.append(EmployeeWrite.insert(employee(2L, "ahmet")));
+        writeLog.close();
+        try (RandomAccessFile segment = new RandomAccessFile(onlySegment().toFile(), "rw")) {
+            segment.seek(end - 1);
+            segment.write(0x7f);
+        }
+
+        // when - action or the behaviour that we are going test
+        EmployeeWriteLog reopened = new EmployeeWriteLog(directory, SEGMENT_SIZE, false);
+        long appended = reopened.append(EmployeeWrite.insert(employee(3L, "mehmet")));
+        EmployeeWriteLog.Batch batch = new EmployeeWriteLog(directory, SEGMENT_SIZE, false).read(0, 10);
+
+        // then - verify the output
+        assertThat(appended).isGreaterThan(tornRecord);
+        assertThat(batch.writes()).extracting(EmployeeWrite::id).containsExactly(1L, 3L);
+    }
+
+    // JUnit test for segment rolling
+    @Test
+    @DisplayName("JUnit test for writes spanning several segments")
+    public void givenSmallSegments_whenAppendAndCommit_thenReadAcrossSegmentsAndDeleteCommittedOnes() throws IOException {
+        // given - precondition or setup
+        EmployeeWriteLog writeLog = new EmployeeWriteLog(directory, 256, false);
+        for (long id = 1; id <= 40; id++) {
+            writeLog.append(EmployeeWrite.insert(employee(id, "eren")));
+        }
+        int segments = segments().size();
+
+        // when - action or the behaviour that we are going test
+        List<Long> ids = new ArrayList<>();
+        EmployeeWriteLog.Batch batch = writeLog.read(0, 7);
+        while (!batch.isEmpty()) {
+            batch.writes().forEach(write -> ids.add(write.id()));
+            writeLog.commit(batch);
+            batch = writeLog.read(batch.end(), 7);
+        }
+
+        // then - verify the output
+        assertThat(segments).isGreaterThan(1);
+        assertThat(ids).hasSize(40).isSorted();
+        assertThat(segments()).hasSize(1);
+        assertThat(new EmployeeWriteLog(directory, 256, false).pending()).isZero();
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segments();
+        assertThat(segments).hasSize(1);
+        return segments.get(0);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> path.getFileName().toString().startsWith("segment-")).toList();
+        }
+    }
+
+    private static Employee employee(long id, String firstName) {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName("dagli")
+                .email(firstName + id + "@gmail.com")
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.dagli.springboottesting.support;
+
+import com.dagli.springboottesting.metrics.SqlStatementCounter;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlStatementCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(SqlStatementCountExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(SqlStatements.class, new SqlStatements());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        SqlStatements statements = context.getStore(NAMESPACE).remove(SqlStatements.class, SqlStatements.class);
+        statements.close();
+
+        SqlStatementLimit limit = context.getRequiredTestMethod().getAnnotation(SqlStatementLimit.class);
+        if (limit != null && context.getExecutionException().isEmpty()) {
+            assertAtMost(statements.count(SqlStatementCounter.Type.SELECT), limit.select(), "SELECT");
+            assertAtMost(statements.count(SqlStatementCounter.Type.INSERT), limit.insert(), "INSERT");
+            assertAtMost(statements.count(SqlStatementCounter.Type.UPDATE), limit.update(), "UPDATE");
+            assertAtMost(statements.count(SqlStatementCounter.Type.DELETE), limit.delete(), "DELETE");
+            assertAtMost(statements.total(), limit.total(), "total");
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == SqlStatements.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return extensionContext.getStore(NAMESPACE).get(SqlStatements.class, SqlStatements.class);
+    }
+
+    private static void assertAtMost(int actual, int limit, String type) {
+        if (limit != SqlStatementLimit.UNLIMITED) {
+            assertThat(actual).as("%s statements", type).isLessThanOrEqualTo(limit);
+        }
+    }
+}
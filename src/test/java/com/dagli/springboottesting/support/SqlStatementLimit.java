@@ -0,0 +1,29 @@
+package com.dagli.springboottesting.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// fails the test when it runs more SQL statements of a type than allowed. Statements are counted on the
+// test thread from the start of the test method, or from the last SqlStatements.reset() call, so the
+// given block can be excluded. Needs SqlStatementCounter registered as Hibernate's statement inspector.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(SqlStatementCountExtension.class)
+public @interface SqlStatementLimit {
+
+    int UNLIMITED = -1;
+
+    int select() default UNLIMITED;
+
+    int insert() default UNLIMITED;
+
+    int update() default UNLIMITED;
+
+    int delete() default UNLIMITED;
+
+    int total() default UNLIMITED;
+}
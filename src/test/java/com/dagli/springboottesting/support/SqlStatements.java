@@ -0,0 +1,27 @@
+package com.dagli.springboottesting.support;
+
+import com.dagli.springboottesting.metrics.SqlStatementCounter;
+
+// statements counted for the running test, injected as a test method parameter by SqlStatementCountExtension
+public class SqlStatements {
+
+    private final SqlStatementCounter.Scope testScope = SqlStatementCounter.open();
+    private SqlStatementCounter.Scope scope = testScope;
+
+    // starts counting again, call it between the given and the when block
+    public void reset() {
+        scope = SqlStatementCounter.open();
+    }
+
+    public int count(SqlStatementCounter.Type type) {
+        return scope.count(type);
+    }
+
+    public int total() {
+        return scope.total();
+    }
+
+    void close() {
+        testScope.close();
+    }
+}